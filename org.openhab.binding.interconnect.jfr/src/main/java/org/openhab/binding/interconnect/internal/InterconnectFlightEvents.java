@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import org.openhab.binding.interconnect.internal.InterconnectFlightRecorder.EventFactory;
+
+/**
+ * The {@link InterconnectFlightEvents} class contains the Java Flight Recorder events of the binding.
+ * It is loaded by the {@link InterconnectFlightRecorder} of the host bundle by its class name, so the binding does
+ * not depend on jdk.jfr.
+ *
+ * @author Zim - Initial contribution
+ */
+public class InterconnectFlightEvents implements EventFactory {
+
+    private static final String CATEGORY_OPENHAB = "openHAB";
+    private static final String CATEGORY_INTERCONNECT = "Interconnect";
+
+    @Override
+    public InterconnectFlightRecorder.Event createSync(String node, int shard) {
+        SyncEvent event = new SyncEvent();
+        event.node = node;
+        event.shard = shard;
+        return event;
+    }
+
+    @Override
+    public InterconnectFlightRecorder.Event createPhase(String node, String phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.node = node;
+        event.phase = phase;
+        return event;
+    }
+
+    @Override
+    public InterconnectFlightRecorder.Event createCommand(String node, String item) {
+        CommandEvent event = new CommandEvent();
+        event.node = node;
+        event.item = item;
+        return event;
+    }
+
+    @Override
+    public InterconnectFlightRecorder.Event createQueueWait(String node, String kind, String priority) {
+        QueueWaitEvent event = new QueueWaitEvent();
+        event.node = node;
+        event.kind = kind;
+        event.priority = priority;
+        return event;
+    }
+
+    @Name("org.openhab.binding.interconnect.Sync")
+    @Label("Synchronization Cycle")
+    @Description("One synchronization of the local node with the remote node")
+    @Category({ CATEGORY_OPENHAB, CATEGORY_INTERCONNECT })
+    @StackTrace(false)
+    static class SyncEvent extends Event implements InterconnectFlightRecorder.Event {
+        @Label("Node")
+        String node;
+
+        @Label("Shard")
+        int shard;
+
+        @Label("Items")
+        @Description("Number of items received from the remote node")
+        int items;
+
+        @Label("Payload Length")
+        @Description("Length of all responses in characters")
+        long payloadLength;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void commit(int items, long payloadLength, String outcome) {
+            end();
+            this.items = items;
+            this.payloadLength = payloadLength;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    @Name("org.openhab.binding.interconnect.SyncPhase")
+    @Label("Synchronization Phase")
+    @Description("One phase of a synchronization cycle")
+    @Category({ CATEGORY_OPENHAB, CATEGORY_INTERCONNECT })
+    @StackTrace(false)
+    static class PhaseEvent extends Event implements InterconnectFlightRecorder.Event {
+        @Label("Node")
+        String node;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Items")
+        int items;
+
+        @Label("Payload Length")
+        @Description("Length of the processed payload in characters")
+        long payloadLength;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void commit(int items, long payloadLength, String outcome) {
+            end();
+            this.items = items;
+            this.payloadLength = payloadLength;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    @Name("org.openhab.binding.interconnect.Command")
+    @Label("Remote Command")
+    @Description("A command sent to the remote node")
+    @Category({ CATEGORY_OPENHAB, CATEGORY_INTERCONNECT })
+    @StackTrace(false)
+    static class CommandEvent extends Event implements InterconnectFlightRecorder.Event {
+        @Label("Node")
+        String node;
+
+        @Label("Item")
+        String item;
+
+        @Label("Payload Length")
+        @Description("Length of the command value in characters")
+        long payloadLength;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void commit(int items, long payloadLength, String outcome) {
+            end();
+            this.payloadLength = payloadLength;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    @Name("org.openhab.binding.interconnect.QueueWait")
+    @Label("Remote Node Queue Wait")
+    @Description("Time a request waited for the rate limiter of the remote node")
+    @Category({ CATEGORY_OPENHAB, CATEGORY_INTERCONNECT })
+    @StackTrace(false)
+    static class QueueWaitEvent extends Event implements InterconnectFlightRecorder.Event {
+        @Label("Node")
+        String node;
+
+        @Label("Kind")
+        String kind;
+
+        @Label("Priority")
+        String priority;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void commit(int items, long payloadLength, String outcome) {
+            end();
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectSoakMonitor} samples the resource usage of the synchronization after every cycle and detects
+ * growth, which builds up over a long uptime.
+ *
+ * The following metrics are sampled:
+ * <ul>
+ * <li>live set -- heap used after the last garbage collection</li>
+ * <li>allocation -- bytes allocated by the synchronizing thread per cycle and item, if supported by the JVM</li>
+ * <li>bookkeeping -- entries in the maps of the binding, which have to be emptied again</li>
+ * <li>file size -- size of the generated files per item</li>
+ * <li>threads -- live threads of the JVM</li>
+ * </ul>
+ * The average of the first window after the warm-up is the baseline of a metric. The check fails, as soon as the
+ * average of the last window exceeds the baseline by more than the growth factor given to the monitor.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectSoakMonitor {
+
+    /**
+     * A sampled metric.
+     */
+    public enum Metric {
+        LIVE_SET("live set", 1 << 20),
+        ALLOCATION("allocation per item", 1 << 10),
+        BOOKKEEPING("bookkeeping entries", 16),
+        FILE_SIZE("file size per item", 64),
+        THREADS("threads", 4);
+
+        private final String label;
+        // absolute growth, which is always accepted to ignore noise on small values
+        private final double slack;
+
+        private Metric(String label, double slack) {
+            this.label = label;
+            this.slack = slack;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    // cycles ignored at the start, while caches and files are built up
+    private static final int WARM_UP_CYCLES = 10;
+    // number of cycles averaged for the baseline and the current value
+    private static final int WINDOW = 20;
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectSoakMonitor.class);
+
+    private final double growthFactor;
+    private final @Nullable ThreadAllocation threadAllocation = createThreadAllocation();
+    private final double[] baseline = new double[Metric.values().length];
+    private final double[] window = new double[Metric.values().length];
+    private long cycles;
+    private int windowCycles;
+    private boolean baselineComplete;
+    private @Nullable String failure;
+
+    /**
+     * Creates the monitor.
+     *
+     * @param growthFactor -- accepted growth of every metric compared to its baseline, e.g. 1.5
+     */
+    public InterconnectSoakMonitor(double growthFactor) {
+        if (growthFactor <= 1) {
+            throw new IllegalArgumentException("Growth factor must be greater than 1");
+        }
+        this.growthFactor = growthFactor;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far. Must be called at the start of a cycle.
+     *
+     * @return allocated bytes or -1 if not supported by the JVM
+     */
+    public long allocatedBytes() {
+        ThreadAllocation allocation = this.threadAllocation;
+        return allocation == null ? -1 : allocation.allocatedBytes();
+    }
+
+    /**
+     * Samples the metrics at the end of a cycle. Must be called from the thread which has run the cycle.
+     *
+     * @param allocatedBytesAtStart -- value of {@link #allocatedBytes()} at the start of the cycle
+     * @param items -- number of local items
+     * @param bookkeeping -- number of entries in the maps of the binding
+     * @param fileSize -- size of the generated files in bytes
+     * @return false if a metric has grown above its threshold
+     */
+    public synchronized boolean sample(long allocatedBytesAtStart, int items, int bookkeeping, long fileSize) {
+        if (failure != null) {
+            return false;
+        }
+        if (++cycles <= WARM_UP_CYCLES) {
+            return true;
+        }
+        double perItem = Math.max(items, 1);
+        long allocatedBytes = allocatedBytes();
+        add(Metric.LIVE_SET, liveSet());
+        add(Metric.ALLOCATION, allocatedBytesAtStart < 0 || allocatedBytes < 0 ? 0
+                : (allocatedBytes - allocatedBytesAtStart) / perItem);
+        add(Metric.BOOKKEEPING, bookkeeping);
+        add(Metric.FILE_SIZE, fileSize / perItem);
+        add(Metric.THREADS, ManagementFactory.getThreadMXBean().getThreadCount());
+        if (++windowCycles < WINDOW) {
+            return true;
+        }
+        for (Metric metric : Metric.values()) {
+            int i = metric.ordinal();
+            double average = window[i] / windowCycles;
+            window[i] = 0;
+            if (!baselineComplete) {
+                baseline[i] = average;
+            } else if (average > baseline[i] * growthFactor + metric.slack) {
+                failure = String.format("%s grew from %.0f to %.0f after %d cycles", metric.getLabel(), baseline[i],
+                        average, cycles);
+            }
+        }
+        if (!baselineComplete) {
+            logger.debug("Soak baseline after {} cycles: live set {}, allocation per item {}, bookkeeping {}, "
+                    + "file size per item {}, threads {}", cycles, baseline[0], baseline[1], baseline[2], baseline[3],
+                    baseline[4]);
+        }
+        baselineComplete = true;
+        windowCycles = 0;
+        return failure == null;
+    }
+
+    /**
+     * Returns the reason of the failed check.
+     *
+     * @return the reason or null if the check has not failed
+     */
+    public synchronized @Nullable String getFailure() {
+        return failure;
+    }
+
+    private void add(Metric metric, double value) {
+        window[metric.ordinal()] += value;
+    }
+
+    private static @Nullable ThreadAllocation createThreadAllocation() {
+        try {
+            return ThreadAllocation.create();
+        } catch (LinkageError e) {
+            // not a HotSpot JVM
+            return null;
+        }
+    }
+
+    private static long liveSet() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Access to the allocation counter of the HotSpot JVM, which is not part of the standard API.
+     */
+    private static class ThreadAllocation {
+        private final com.sun.management.ThreadMXBean bean;
+
+        private ThreadAllocation(com.sun.management.ThreadMXBean bean) {
+            this.bean = bean;
+        }
+
+        static @Nullable ThreadAllocation create() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) bean;
+                if (hotSpotBean.isThreadAllocatedMemorySupported() && hotSpotBean.isThreadAllocatedMemoryEnabled()) {
+                    return new ThreadAllocation(hotSpotBean);
+                }
+            }
+            return null;
+        }
+
+        long allocatedBytes() {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
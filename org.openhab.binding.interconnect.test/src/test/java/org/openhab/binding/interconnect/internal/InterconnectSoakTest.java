@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.library.items.NumberItem;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The {@link InterconnectSoakTest} runs the synchronization for many cycles against a remote node, whose items keep
+ * changing, and fails as soon as the resource usage of the binding grows above its baseline.
+ *
+ * The number of cycles is set by the system property interconnect.soak.cycles, e.g. to run a long soak before a
+ * release.
+ *
+ * @author Zim - Initial contribution
+ */
+public class InterconnectSoakTest {
+
+    // cycles include the warm-up and the baseline window of the monitor
+    private static final int CYCLES = Integer.getInteger("interconnect.soak.cycles", 300);
+    private static final int ITEMS = 2000;
+    // items replaced in every cycle
+    private static final int CHURN = 20;
+    private static final double GROWTH_FACTOR = 1.5;
+    // maximum time for writing the sitemap files of a cycle
+    private static final long WRITE_TIMEOUT = 30000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InterconnectStubNode node;
+    private InterconnectHandler handler;
+
+    @Before
+    public void setUp() throws IOException {
+        node = new InterconnectStubNode(ITEMS, CHURN);
+        node.start();
+        File root = folder.getRoot();
+        new File(root, "items").mkdirs();
+        new File(root, "sitemaps").mkdirs();
+        new File(root, "interconnect").mkdirs();
+
+        Configuration configuration = new Configuration();
+        configuration.put("sitemapName", "Soak");
+        // the cycles are run by the test, not by the scheduler
+        configuration.put("refreshTime", "3600");
+        configuration.put("nodeIPAddress", "127.0.0.1");
+        configuration.put("port", String.valueOf(node.getPort()));
+        configuration.put("systemFolderPath", root.getPath());
+        configuration.put("itemSelection", InterconnectBindingConstants.ITEM_SELECTION_DEFAULT);
+        Thing thing = mock(Thing.class);
+        when(thing.getUID()).thenReturn(new ThingUID(InterconnectBindingConstants.THING_TYPE_SAMPLE, "soak"));
+        when(thing.getConfiguration()).thenReturn(configuration);
+        ItemRegistry itemRegistry = mock(ItemRegistry.class);
+        when(itemRegistry.get(anyString()))
+                .thenAnswer(invocation -> new NumberItem((String) invocation.getArguments()[0]));
+
+        handler = new InterconnectHandler(thing, itemRegistry);
+        handler.setCallback(mock(ThingHandlerCallback.class));
+        handler.initialize();
+        // the cycles are run by the test only, and the sitemap files are swapped without a pause
+        handler.cancelJobs();
+        handler.setSitemapSwapPause(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        handler.dispose();
+        node.close();
+    }
+
+    @Test
+    public void resourceUsageDoesNotGrowWithChangingItems() throws IOException, InterruptedException {
+        InterconnectSoakMonitor monitor = new InterconnectSoakMonitor(GROWTH_FACTOR);
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            node.nextCycle();
+            long allocatedBytes = monitor.allocatedBytes();
+            handler.synchronizeNow();
+            // the files are sampled after they have been swapped completely
+            assertTrue("Sitemap files not written in cycle " + cycle, handler.awaitWrites(WRITE_TIMEOUT));
+            assertTrue("Soak check failed: " + monitor.getFailure(), monitor.sample(allocatedBytes,
+                    node.getItemCount(), handler.getBookkeepingSize(), generatedFileSize()));
+        }
+        // every item is defined once, replaced items must not pile up in the generated file
+        assertEquals(ITEMS, countLines(new File(folder.getRoot(), "items")));
+    }
+
+    private long generatedFileSize() {
+        long size = 0;
+        for (String folderName : new String[] { "items", "sitemaps" }) {
+            File[] files = new File(folder.getRoot(), folderName).listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    size += file.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long countLines(File folder) throws IOException {
+        long lines = 0;
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                lines += Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                        .filter(line -> !line.trim().isEmpty()).count();
+            }
+        }
+        return lines;
+    }
+}
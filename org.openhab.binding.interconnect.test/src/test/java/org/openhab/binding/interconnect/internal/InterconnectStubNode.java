@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectStubNode} is a minimal remote node, which answers the item requests of the binding over HTTP.
+ * The items change from cycle to cycle: the states change at different rates, and some items are removed while the
+ * same number of new items is added, so the total number of items stays the same.
+ *
+ * All other requests are answered with 404, so the binding falls back to polling the items.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectStubNode implements AutoCloseable {
+
+    private static final String ITEMS_PATH = "/rest/items?";
+    private static final int GROUPS = 10;
+
+    private final int itemCount;
+    private final int churn;
+    private final ServerSocket serverSocket;
+    private volatile int cycle;
+    private volatile boolean closed;
+
+    /**
+     * Creates the node on a free port of the loopback interface.
+     *
+     * @param itemCount -- number of items of the node
+     * @param churn -- number of items replaced in every cycle
+     * @throws IOException if no port is free
+     */
+    public InterconnectStubNode(int itemCount, int churn) throws IOException {
+        this.itemCount = itemCount;
+        this.churn = churn;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Starts answering the requests.
+     */
+    public void start() {
+        Thread thread = new Thread(this::accept, "interconnect-stub-node");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Changes the items for the next synchronization cycle.
+     */
+    public void nextCycle() {
+        ++cycle;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (IOException e) {
+                // the request has failed or the node has been closed
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String requestLine = reader.readLine();
+        if (requestLine == null) {
+            return;
+        }
+        int contentLength = 0;
+        String header;
+        while ((header = reader.readLine()) != null && !header.isEmpty()) {
+            if (header.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(header.substring(header.indexOf(':') + 1).trim());
+            }
+        }
+        for (int i = 0; i < contentLength; i++) {
+            reader.read();
+        }
+        String[] request = requestLine.split(" ");
+        if (request.length >= 2 && "GET".equals(request[0]) && request[1].startsWith(ITEMS_PATH)) {
+            respond(socket.getOutputStream(), "200 OK", renderItems(cycle));
+        } else {
+            respond(socket.getOutputStream(), "404 Not Found", "");
+        }
+    }
+
+    private String renderItems(int cycle) {
+        StringBuilder json = new StringBuilder("[");
+        // the oldest items are removed and new ones are added with every cycle
+        int first = cycle * churn;
+        for (int i = first; i < first + itemCount; i++) {
+            if (i > first) {
+                json.append(',');
+            }
+            // the items change their states at different rates
+            long state = (i + cycle / (1 + i % 4)) % 1000;
+            json.append("{\"link\":\"http://stub/rest/items/Soak_").append(i).append("\",\"state\":\"").append(state)
+                    .append("\",\"type\":\"Number\",\"name\":\"Soak_").append(i).append("\",\"label\":\"Soak ")
+                    .append(i).append("\",\"tags\":[],\"groupNames\":[\"SoakGroup_").append(i % GROUPS)
+                    .append("\"]}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static void respond(OutputStream out, String status, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + "\r\nContent-Type: application/json\r\nContent-Length: " + content.length
+                + "\r\nConnection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(content);
+        out.flush();
+    }
+}
@@ -34,6 +34,16 @@ public class InterconnectBindingConstants {
     // List of all Channel ids -- see thing-types.xml
     public static final String CHANNEL_SWITCH = "Switch";
     public static final String CHANNEL_NUMBER = "Number";
+    public static final String CHANNEL_DIMMER = "Dimmer";
+    public static final String CHANNEL_ROLLERSHUTTER = "Rollershutter";
+    public static final String CHANNEL_COLOR = "Color";
+    public static final String CHANNEL_CONTACT = "Contact";
+    public static final String CHANNEL_STRING = "String";
+    public static final String CHANNEL_DATETIME = "DateTime";
+    public static final String CHANNEL_PLAYER = "Player";
+    public static final String CHANNEL_LOCATION = "Location";
+    public static final String CHANNEL_IMAGE = "Image";
+    public static final String CHANNEL_CALL = "Call";
     public static final String CHANNEL_GROUP = "Group";
     public static final String CHANNEL_GROUP_PAGE = "linkedPage";
 
@@ -58,6 +68,17 @@ public class InterconnectBindingConstants {
     public static final String ITEM_SELECTION_DEFAULT = "0";
     public static final String ITEM_SELECTION_SITEMAP_ALL = "1";
 
+    public static final String SITEMAP_LAYOUT_FLAT = "flat";
+    public static final String SITEMAP_LAYOUT_PAGES = "pages";
+
+    public static final String TRACE_MODE_OFF = "off";
+    public static final String TRACE_MODE_RECORD = "record";
+    public static final String TRACE_MODE_REPLAY = "replay";
+
+    // tags of relayed items, followed by the name of the origin node and the number of hops
+    public static final String RELAY_TAG_ORIGIN = "interconnect:origin=";
+    public static final String RELAY_TAG_HOPS = "interconnect:hops=";
+
     // much space, wow
     public static final String SPACE = "     ";
 }
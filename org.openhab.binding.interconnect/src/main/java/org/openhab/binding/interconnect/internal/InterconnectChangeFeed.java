@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectChangeFeed} keeps the latest changes of the local items in a ring buffer, so consumers can
+ * ask for the changes since the last sequence number they have seen, instead of reading all items again.
+ *
+ * Every change gets a sequence number, which is counted up by one. A consumer, which has fallen behind the oldest
+ * change in the buffer, is told to read all items again (resync), the same applies to a sequence number from before a
+ * restart of the feed.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectChangeFeed {
+
+    /**
+     * The kinds of changes.
+     */
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        UPDATED,
+        STATE
+    }
+
+    /**
+     * A change of a local item.
+     */
+    public static class Change {
+        private final long sequence;
+        private final Kind kind;
+        private final String name;
+        @Nullable
+        private final String state;
+        private final long timestamp;
+
+        Change(long sequence, Kind kind, String name, @Nullable String state, long timestamp) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.name = name;
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the state of the item after the change.
+         *
+         * @return the state or null for removed items
+         */
+        public @Nullable String getState() {
+            return state;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return sequence + " " + kind.name().toLowerCase(Locale.ROOT) + " " + name
+                    + (state == null ? "" : " = " + state);
+        }
+    }
+
+    /**
+     * The changes after a sequence number.
+     */
+    public static class Changes {
+        private final List<Change> changes;
+        private final long lastSequence;
+        private final boolean resyncRequired;
+
+        Changes(List<Change> changes, long lastSequence, boolean resyncRequired) {
+            this.changes = changes;
+            this.lastSequence = lastSequence;
+            this.resyncRequired = resyncRequired;
+        }
+
+        /**
+         * Returns the changes in the order of their sequence numbers.
+         *
+         * @return the changes, empty if a resync is required
+         */
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * Returns the sequence number of the latest change, which the consumer passes with its next request.
+         *
+         * @return the latest sequence number, 0 if no change has been made yet
+         */
+        public long getLastSequence() {
+            return lastSequence;
+        }
+
+        /**
+         * Returns if changes have been dropped from the feed, which the consumer has not seen.
+         *
+         * @return true if the consumer has to read all items again
+         */
+        public boolean isResyncRequired() {
+            return resyncRequired;
+        }
+    }
+
+    private final Change[] buffer;
+    // sequence number of the latest change
+    private long lastSequence;
+
+    /**
+     * Creates an empty feed.
+     *
+     * @param capacity -- number of changes kept
+     */
+    public InterconnectChangeFeed(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.buffer = new Change[capacity];
+    }
+
+    /**
+     * Adds a change. The oldest change is dropped, if the feed is full.
+     *
+     * @param kind -- kind of the change
+     * @param name -- local name of the item
+     * @param state -- state of the item after the change or null
+     * @return sequence number of the change
+     */
+    public synchronized long record(Kind kind, String name, @Nullable String state) {
+        long sequence = ++lastSequence;
+        buffer[(int) (sequence % buffer.length)] = new Change(sequence, kind, name, state,
+                System.currentTimeMillis());
+        return sequence;
+    }
+
+    /**
+     * Returns the changes after a sequence number.
+     *
+     * @param afterSequence -- the last sequence number seen by the consumer, 0 for all changes kept
+     * @param limit -- maximum number of changes returned
+     * @return the changes or the request for a resync
+     */
+    public synchronized Changes getChanges(long afterSequence, int limit) {
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        if (afterSequence > lastSequence || (afterSequence > 0 && afterSequence < oldest - 1)) {
+            return new Changes(Collections.emptyList(), lastSequence, true);
+        }
+        long first = Math.max(afterSequence + 1, oldest);
+        long last = Math.min(lastSequence, first + Math.max(limit, 0) - 1);
+        List<Change> changes = new ArrayList<>((int) Math.max(0, last - first + 1));
+        for (long sequence = first; sequence <= last; sequence++) {
+            changes.add(buffer[(int) (sequence % buffer.length)]);
+        }
+        return new Changes(changes, changes.isEmpty() ? lastSequence : last, false);
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectCircuitBreaker} tracks if the remote node is reachable.
+ *
+ * The breaker opens after consecutive failed synchronizations or a failed command. While it is open, commands are
+ * stored in the {@link InterconnectOutbox} instead of being sent. The synchronizations keep on polling the remote
+ * node and close the breaker with their first success.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectCircuitBreaker {
+
+    // consecutive failed synchronizations, which open the breaker
+    private static final int FAILURE_THRESHOLD = 2;
+
+    private int failures;
+    private volatile boolean open;
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Records a failed synchronization.
+     *
+     * @return true if the breaker has been opened by this failure
+     */
+    public synchronized boolean recordFailure() {
+        if (++failures >= FAILURE_THRESHOLD && !open) {
+            open = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Opens the breaker immediately, e.g. after a command has failed with all its retries.
+     *
+     * @return true if the breaker has been closed before
+     */
+    public synchronized boolean trip() {
+        failures = FAILURE_THRESHOLD;
+        boolean wasClosed = !open;
+        open = true;
+        return wasClosed;
+    }
+
+    /**
+     * Records a successful request to the remote node.
+     *
+     * @return true if the breaker has been closed by this success
+     */
+    public synchronized boolean recordSuccess() {
+        failures = 0;
+        boolean wasOpen = open;
+        open = false;
+        return wasOpen;
+    }
+}
@@ -25,4 +25,22 @@ public class InterconnectConfiguration {
     public String port;
     public String systemFolderPath;
     public String itemSelection;
+    public String traceMode;
+    public String traceFile;
+    public String traceSpeed;
+    public String outboxMaxAge;
+    public String outboxSize;
+    public String maxReadsPerSecond;
+    public String maxWritesPerSecond;
+    public String maxConcurrentRequests;
+    public String hotItems;
+    public String hotRefreshTime;
+    public String shards;
+    public String sitemapLayout;
+    public String mirrorItems;
+    public String mirrorInterval;
+    public String relayNodeName;
+    public String remoteNodeName;
+    public String parallelDecodeSize;
+    public String syncBudget;
 }
@@ -3,10 +3,19 @@ package org.openhab.binding.interconnect.internal;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.net.http.HttpUtil;
+import org.openhab.binding.interconnect.internal.InterconnectEndpoints.Endpoint;
+import org.openhab.binding.interconnect.internal.InterconnectRateLimiter.Kind;
+import org.openhab.binding.interconnect.internal.InterconnectRateLimiter.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,21 +35,79 @@ public class InterconnectConnections {
     private static final String WEBSERVICE_SITEMAP_ALL_GET_URL_END = "/rest/sitemaps";
     private static final String WEBSERVICE_SITEMAP_SINGLE_GET_URL_END = "/rest/sitemaps/";
     private static final String WEBSERVICE_SITEMAP_GET_URL_END = "?jsoncallback=callback";
+    private static final String WEBSERVICE_SITEMAP_EVENTS_URL = "/rest/sitemaps/events/";
+    private static final String WEBSERVICE_SITEMAP_SUBSCRIBE_URL_END = "subscribe";
+    private static final String WEBSERVICE_ITEM_EVENTS_URL = "/rest/events?topics=smarthome/items/*/statechanged,"
+            + "smarthome/items/*/added,smarthome/items/*/removed,smarthome/items/*/updated";
 
     private static final String METHOD_GET = "GET";
     private static final String METHOD_POST = "POST";
 
     private static final int TIMEOUT = 1 * 1000; // 10s
+    // waits for the rate limiter above are logged
+    private static final long SLOW_QUEUE_WAIT = TimeUnit.SECONDS.toNanos(1);
 
-    private static String ipAddress = "localhost";// 192.168.178.23:8080
-    private static String port = "8080";
+    // addresses of the remote node, see setEndpoints
+    private volatile InterconnectEndpoints endpoints = InterconnectEndpoints.parse("localhost", "8080");
 
-    public void setIPAddress(String ip) {
-        ipAddress = ip;
+    // capture and replay of the traffic with the remote node, see setTraceRecorder and setTraceReplayer
+    @Nullable
+    private volatile InterconnectTraceRecorder traceRecorder;
+    @Nullable
+    private volatile InterconnectTraceReplayer traceReplayer;
+    // limiter shared by all connections to the remote node, see setRateLimiter
+    @Nullable
+    private volatile InterconnectRateLimiter rateLimiter;
+
+    /**
+     * Sets the addresses of the remote node.
+     *
+     * @param endpoints
+     */
+    public void setEndpoints(InterconnectEndpoints endpoints) {
+        this.endpoints = endpoints;
     }
 
-    public void setPort(String localport) {
-        port = localport;
+    public InterconnectEndpoints getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Sets the recorder, which will write every request and response to a trace file. Use null to stop recording.
+     *
+     * @param recorder
+     */
+    public void setTraceRecorder(@Nullable InterconnectTraceRecorder recorder) {
+        this.traceRecorder = recorder;
+    }
+
+    /**
+     * Sets the replayer, which will answer all requests from a recorded trace instead of the remote node. Use null to
+     * talk to the remote node again.
+     *
+     * @param replayer
+     */
+    public void setTraceReplayer(@Nullable InterconnectTraceReplayer replayer) {
+        this.traceReplayer = replayer;
+    }
+
+    /**
+     * Sets the limiter, which every request to the remote node has to pass. Use null to send requests without limit.
+     *
+     * @param limiter
+     */
+    public void setRateLimiter(@Nullable InterconnectRateLimiter limiter) {
+        this.rateLimiter = limiter;
+    }
+
+    /**
+     * Marks the start of a new synchronization cycle in the trace, if recording is active.
+     */
+    public void markCycle() {
+        InterconnectTraceRecorder recorder = this.traceRecorder;
+        if (recorder != null) {
+            recorder.markCycle();
+        }
     }
 
     /**
@@ -51,17 +118,7 @@ public class InterconnectConnections {
      * @throws IOException
      */
     public String getAllSitemapDatasFromNode() throws IOException {
-        Properties reqProperties = new Properties();
-        try {
-            reqProperties.put("Accept", "application/json");
-
-            return HttpUtil.executeUrl(METHOD_GET,
-                    WEBSERVICE_URL_BEGIN + ipAddress + ":" + port + WEBSERVICE_SITEMAP_ALL_GET_URL_END, reqProperties,
-                    null, null, TIMEOUT);
-        } catch (IOException e) {
-            // logger.warn("Communication error : {}", e.getMessage());
-            throw e;
-        }
+        return execute(METHOD_GET, WEBSERVICE_SITEMAP_ALL_GET_URL_END, null, Priority.SYNC);
     }
 
     /**
@@ -73,38 +130,84 @@ public class InterconnectConnections {
      * @throws IOException
      */
     public String getSpecificSitemapDataFromNode(String sitemapName) throws IOException {
-        Properties reqProperties = new Properties();
-        try {
-            reqProperties.put("Accept", "application/json");
+        return execute(METHOD_GET,
+                WEBSERVICE_SITEMAP_SINGLE_GET_URL_END + sitemapName + WEBSERVICE_SITEMAP_GET_URL_END, null,
+                Priority.SYNC);
+    }
 
-            return HttpUtil.executeUrl(METHOD_GET, WEBSERVICE_URL_BEGIN + ipAddress + ":" + port
-                    + WEBSERVICE_SITEMAP_SINGLE_GET_URL_END + sitemapName + WEBSERVICE_SITEMAP_GET_URL_END,
-                    reqProperties, null, null, TIMEOUT);
-        } catch (IOException e) {
-            // logger.warn("Communication error : {}", e.getMessage());
-            throw e;
+    /**
+     * Creates a subscription for sitemap events on the remote node.
+     *
+     * @return JSOn string with the location of the subscription
+     * @throws IOException
+     */
+    public String subscribeSitemapEvents() throws IOException {
+        return execute(METHOD_POST, WEBSERVICE_SITEMAP_EVENTS_URL + WEBSERVICE_SITEMAP_SUBSCRIBE_URL_END, "",
+                Priority.SYNC);
+    }
+
+    /**
+     * Opens the stream of server-sent events of a sitemap page. The stream does not pass the rate limiter, as it is
+     * open for a long time without load on the remote node.
+     *
+     * @param subscriptionId -- id of the subscription
+     * @param sitemapName -- name of the sitemap
+     * @param pageId -- id of the page
+     * @param readTimeout -- time without any event, after which the stream fails, in milliseconds
+     * @return the event stream, which has to be closed by the caller
+     * @throws IOException
+     */
+    public InputStream openSitemapEvents(String subscriptionId, String sitemapName, String pageId, int readTimeout)
+            throws IOException {
+        String path = WEBSERVICE_SITEMAP_EVENTS_URL + URLEncoder.encode(subscriptionId, "UTF-8") + "?sitemap="
+                + URLEncoder.encode(sitemapName, "UTF-8") + "&pageid=" + URLEncoder.encode(pageId, "UTF-8");
+        return openEventStream(path, readTimeout);
+    }
+
+    /**
+     * Opens the stream of server-sent events for the state and structure changes of all items on the remote node.
+     *
+     * @param readTimeout -- time without any event, after which the stream fails, in milliseconds
+     * @return the event stream, which has to be closed by the caller
+     * @throws IOException
+     */
+    public InputStream openItemEvents(int readTimeout) throws IOException {
+        return openEventStream(WEBSERVICE_ITEM_EVENTS_URL, readTimeout);
+    }
+
+    private InputStream openEventStream(String path, int readTimeout) throws IOException {
+        InterconnectEndpoints endpoints = this.endpoints;
+        IOException failure = null;
+        for (Endpoint endpoint : endpoints.candidates()) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(
+                        WEBSERVICE_URL_BEGIN + endpoint.getAddress() + path).openConnection();
+                connection.setRequestProperty("Accept", "text/event-stream");
+                connection.setConnectTimeout(TIMEOUT);
+                connection.setReadTimeout(readTimeout);
+                int status = connection.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    connection.disconnect();
+                    throw new IOException("Event stream " + path + " refused with status " + status);
+                }
+                return connection.getInputStream();
+            } catch (IOException e) {
+                failure = e;
+            }
         }
+        throw failure == null ? new IOException("No endpoint for remote node") : failure;
     }
 
     /**
      * Returns a string in JSON format which contains the data of all items on the remote node.
      *
-     * @param query -- use null the query all items
+     * @param query -- additional query parameters like "tags=Lighting", use null the query all items
      * @return JSOn string
      * @throws IOException
      */
-    public String getAllItemsResponsefromNode(String query) throws IOException {
-        Properties reqProperties = new Properties();
-        try {
-            reqProperties.put("Accept", "application/json");
-
-            return HttpUtil.executeUrl(METHOD_GET,
-                    WEBSERVICE_URL_BEGIN + ipAddress + ":" + port + WEBSERVICE_ITEMS_GET_URL_END, reqProperties, null,
-                    null, TIMEOUT);
-        } catch (IOException e) {
-            // logger.warn("Communication error : {}", e.getMessage());
-            throw e;
-        }
+    public String getAllItemsResponsefromNode(@Nullable String query) throws IOException {
+        return execute(METHOD_GET, query == null ? WEBSERVICE_ITEMS_GET_URL_END
+                : WEBSERVICE_ITEMS_GET_URL_END + "&" + query, null, Priority.SYNC);
     }
 
     /**
@@ -115,17 +218,7 @@ public class InterconnectConnections {
      * @throws IOException
      */
     public String getSpecificItemDataFromNode(String itemName) throws IOException {
-        Properties reqProperties = new Properties();
-        try {
-            reqProperties.put("Accept", "application/json");
-
-            return HttpUtil.executeUrl(METHOD_GET,
-                    WEBSERVICE_URL_BEGIN + ipAddress + ":" + port + WEBSERVICE_ITEMS_POST_GET_URL_END + itemName,
-                    reqProperties, null, null, TIMEOUT);
-        } catch (IOException e) {
-            // logger.warn("Communication error : {}", e.getMessage());
-            throw e;
-        }
+        return execute(METHOD_GET, WEBSERVICE_ITEMS_POST_GET_URL_END + itemName, null, Priority.REFRESH);
     }
 
     /**
@@ -137,25 +230,20 @@ public class InterconnectConnections {
      * @throws IOException
      */
     public String setItemValueRemoteNode(String itemName, String value) throws IOException {
-        Properties reqProperties = new Properties();
         try {
-            reqProperties.put("Accept", "application/json");
-            InputStream urlContent = new ByteArrayInputStream(value.getBytes(Charset.forName("UTF-8")));
-
             String returnFormExecution = null;
 
             int attempts;
             for (attempts = 0; attempts < 3; attempts++) {
-                returnFormExecution = HttpUtil.executeUrl(METHOD_POST,
-                        WEBSERVICE_URL_BEGIN + ipAddress + ":" + port + WEBSERVICE_ITEMS_POST_GET_URL_END + itemName,
-                        reqProperties, urlContent, "text/plain", TIMEOUT);
+                returnFormExecution = execute(METHOD_POST, WEBSERVICE_ITEMS_POST_GET_URL_END + itemName, value,
+                        Priority.COMMAND);
 
                 if (returnFormExecution != null) {
                     break;
                 }
             }
             if (attempts != 3) {
-                logger.info(returnFormExecution);
+                logger.debug("Command for remote item [{}] answered: {}", itemName, returnFormExecution);
                 return returnFormExecution;
             } else {
                 logger.info("Http request was not executed successfully");
@@ -166,4 +254,87 @@ public class InterconnectConnections {
             throw e;
         }
     }
+
+    /**
+     * Executes the request on the remote node, or answers it from the trace if a replay is active. Requests to the
+     * remote node wait for the rate limiter first.
+     *
+     * @param method -- http method
+     * @param path -- path and query of the request, without scheme, host and port
+     * @param content -- plain text content of the request or null
+     * @param priority -- priority of the request at the rate limiter
+     * @return the response
+     * @throws IOException
+     */
+    private String execute(String method, String path, @Nullable String content, Priority priority)
+            throws IOException {
+        InterconnectTraceReplayer replayer = this.traceReplayer;
+        if (replayer != null) {
+            return replayer.answer(method, path);
+        }
+        InterconnectRateLimiter limiter = this.rateLimiter;
+        if (limiter == null) {
+            return send(method, path, content);
+        }
+        Kind kind = METHOD_GET.equals(method) ? Kind.READ : Kind.WRITE;
+        String priorityName = priority.name().toLowerCase(Locale.ROOT);
+        InterconnectFlightRecorder waitRecorder = InterconnectFlightRecorder.beginQueueWait(limiter.getNode(),
+                kind.name().toLowerCase(Locale.ROOT), priorityName);
+        boolean permitted = false;
+        try {
+            long waited = limiter.start(kind, priority);
+            permitted = true;
+            if (waited > SLOW_QUEUE_WAIT) {
+                logger.debug("{} request to {} waited {} ms for the rate limiter", priorityName, path,
+                        TimeUnit.NANOSECONDS.toMillis(waited));
+            }
+        } finally {
+            waitRecorder.endQueueWait(permitted);
+        }
+        try {
+            return send(method, path, content);
+        } finally {
+            limiter.finish();
+        }
+    }
+
+    /**
+     * Sends the request to the fastest healthy endpoint of the remote node and fails over to the next endpoint, if the
+     * request fails.
+     */
+    private String send(String method, String path, @Nullable String content) throws IOException {
+        Properties reqProperties = new Properties();
+        reqProperties.put("Accept", "application/json");
+
+        InterconnectTraceRecorder recorder = this.traceRecorder;
+        InterconnectEndpoints endpoints = this.endpoints;
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        IOException failure = null;
+        for (Endpoint endpoint : endpoints.candidates()) {
+            InputStream urlContent = content == null ? null
+                    : new ByteArrayInputStream(content.getBytes(Charset.forName("UTF-8")));
+            long attemptStart = System.nanoTime();
+            try {
+                String response = HttpUtil.executeUrl(method, WEBSERVICE_URL_BEGIN + endpoint.getAddress() + path,
+                        reqProperties, urlContent, content == null ? null : "text/plain", TIMEOUT);
+                if (endpoints.recordSuccess(endpoint, System.nanoTime() - attemptStart)) {
+                    logger.info("Endpoint [{}] of remote node is reachable again.", endpoint);
+                }
+                if (recorder != null) {
+                    recorder.record(method, path, content, response, null, startMillis, System.nanoTime() - start);
+                }
+                return response;
+            } catch (IOException e) {
+                if (endpoints.recordFailure(endpoint)) {
+                    logger.warn("Endpoint [{}] of remote node failed: {}", endpoint, e.getMessage());
+                }
+                failure = e;
+            }
+        }
+        if (recorder != null) {
+            recorder.record(method, path, content, null, failure, startMillis, System.nanoTime() - start);
+        }
+        throw failure == null ? new IOException("No endpoint for remote node") : failure;
+    }
 }
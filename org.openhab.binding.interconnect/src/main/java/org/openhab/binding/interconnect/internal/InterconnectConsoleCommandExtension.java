@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingRegistry;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+import org.eclipse.smarthome.io.console.extensions.ConsoleCommandExtension;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The {@link InterconnectConsoleCommandExtension} provides the console commands of the binding, e.g.
+ * <code>smarthome:interconnect changes interconnect:Knoten:1 120</code> lists the changes of the generated items after
+ * sequence number 120, <code>smarthome:interconnect trace interconnect:Knoten:1 60</code> traces the synchronization
+ * of the thing for a minute.
+ *
+ * @author Zim - Initial contribution
+ */
+@Component(service = ConsoleCommandExtension.class)
+@NonNullByDefault
+public class InterconnectConsoleCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String SUBCMD_CHANGES = "changes";
+    // changes printed at once, the consumer continues with the last sequence number printed
+    private static final int CHANGES_LIMIT = 100;
+    private static final String SUBCMD_STATS = "stats";
+    private static final String SUBCMD_SYNC = "sync";
+    private static final String SUBCMD_TRACE = "trace";
+    private static final String TRACE_SHOW = "show";
+    private static final String TRACE_STOP = "stop";
+    // default and maximum duration of a trace in seconds
+    private static final long TRACE_DURATION = 60;
+    private static final long TRACE_DURATION_MAX = TimeUnit.MINUTES.toSeconds(10);
+
+    @SuppressWarnings("null")
+    private ThingRegistry thingRegistry;
+
+    public InterconnectConsoleCommandExtension() {
+        super("interconnect", "Inspect the things of the Interconnect binding.");
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length < 2) {
+            printUsage(console);
+            return;
+        }
+        InterconnectHandler handler = getHandler(args[1]);
+        if (handler == null) {
+            console.println("No Interconnect thing [" + args[1] + "] found.");
+            return;
+        }
+        switch (args[0]) {
+            case SUBCMD_CHANGES:
+                printChanges(handler, args, console);
+                break;
+            case SUBCMD_STATS:
+                handler.getStatistics().forEach(console::println);
+                break;
+            case SUBCMD_SYNC:
+                synchronize(handler, console);
+                break;
+            case SUBCMD_TRACE:
+                trace(handler, args, console);
+                break;
+            default:
+                printUsage(console);
+                break;
+        }
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Arrays.asList(
+                buildCommandUsage(SUBCMD_CHANGES + " <thingUID> [<sequence>]",
+                        "lists the changes of the generated items after the sequence number"),
+                buildCommandUsage(SUBCMD_STATS + " <thingUID>",
+                        "shows the item counts, the timings of the last cycle and the queue depths"),
+                buildCommandUsage(SUBCMD_SYNC + " <thingUID>", "synchronizes all shards now and shows the time taken"),
+                buildCommandUsage(SUBCMD_TRACE + " <thingUID> [<seconds>]",
+                        "traces the synchronization for the seconds given (default " + TRACE_DURATION + ")"),
+                buildCommandUsage(SUBCMD_TRACE + " <thingUID> " + TRACE_SHOW + "|" + TRACE_STOP,
+                        "lists the messages traced or stops the trace"));
+    }
+
+    private void synchronize(InterconnectHandler handler, Console console) {
+        try {
+            console.println("Synchronization took " + handler.synchronizeNow() + " ms.");
+        } catch (IllegalStateException e) {
+            console.println(e.getMessage());
+            return;
+        }
+        handler.getStatistics().forEach(console::println);
+    }
+
+    private void trace(InterconnectHandler handler, String[] args, Console console) {
+        InterconnectTraceBuffer trace = handler.getTrace();
+        String arg = args.length > 2 ? args[2] : String.valueOf(TRACE_DURATION);
+        if (TRACE_SHOW.equals(arg)) {
+            List<String> messages = trace.getMessages();
+            if (trace.getDroppedCount() > 0) {
+                console.println(trace.getDroppedCount() + " older messages dropped.");
+            }
+            messages.forEach(console::println);
+            console.println(messages.size() + " messages" + (trace.isActive() ? ", trace is running." : "."));
+            return;
+        }
+        if (TRACE_STOP.equals(arg)) {
+            trace.stop();
+            console.println("Trace stopped.");
+            return;
+        }
+        long seconds;
+        try {
+            seconds = Long.parseLong(arg);
+        } catch (NumberFormatException e) {
+            console.println("Invalid duration [" + arg + "].");
+            return;
+        }
+        if (seconds <= 0 || seconds > TRACE_DURATION_MAX) {
+            console.println("The duration must be between 1 and " + TRACE_DURATION_MAX + " seconds.");
+            return;
+        }
+        trace.start(TimeUnit.SECONDS.toMillis(seconds));
+        console.println("Tracing for " + seconds + " seconds.");
+    }
+
+    private void printChanges(InterconnectHandler handler, String[] args, Console console) {
+        long after;
+        try {
+            after = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        } catch (NumberFormatException e) {
+            console.println("Invalid sequence number [" + args[2] + "].");
+            return;
+        }
+        InterconnectChangeFeed.Changes changes = handler.getChangeFeed().getChanges(after, CHANGES_LIMIT);
+        if (changes.isResyncRequired()) {
+            console.println("Resync required, the changes after " + after + " are no longer kept. Last sequence: "
+                    + changes.getLastSequence());
+            return;
+        }
+        for (InterconnectChangeFeed.Change change : changes.getChanges()) {
+            console.println(change.toString());
+        }
+        console.println("Last sequence: " + changes.getLastSequence());
+    }
+
+    private void printUsage(Console console) {
+        for (String usage : getUsages()) {
+            console.printUsage(usage);
+        }
+    }
+
+    private @Nullable InterconnectHandler getHandler(String uid) {
+        Thing thing;
+        try {
+            thing = thingRegistry.get(new ThingUID(uid));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        ThingHandler handler = thing == null ? null : thing.getHandler();
+        return handler instanceof InterconnectHandler ? (InterconnectHandler) handler : null;
+    }
+
+    @Reference
+    protected void setThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = thingRegistry;
+    }
+
+    protected void unsetThingRegistry(ThingRegistry thingRegistry) {
+        this.thingRegistry = null;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectEndpoints} holds the addresses, under which a remote node can be reached, e.g. a primary node
+ * and its hot standby, or the same node on two interfaces.
+ *
+ * Every endpoint tracks its health and the exponentially weighted moving average of its latency. Requests are sent to
+ * the fastest healthy endpoint first and fail over to the next one. A failed endpoint is skipped, until its retry
+ * delay has passed, then a single request probes it again.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectEndpoints {
+
+    // weight of the latest latency in the moving average
+    private static final double EWMA_WEIGHT = 0.3;
+    // time a failed endpoint is skipped
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * An address of the remote node.
+     */
+    public static class Endpoint {
+        private final String host;
+        private final String port;
+        private final int index;
+        private double latency;
+        private boolean healthy = true;
+        private long retryAt;
+
+        Endpoint(String host, String port, int index) {
+            this.host = host;
+            this.port = port;
+            this.index = index;
+        }
+
+        public String getAddress() {
+            return host + ":" + port;
+        }
+
+        /**
+         * Returns the moving average of the latency.
+         *
+         * @return latency in milliseconds, 0 if not measured yet
+         */
+        public synchronized double getLatency() {
+            return latency / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public synchronized boolean isHealthy() {
+            return healthy;
+        }
+
+        @Override
+        public String toString() {
+            return getAddress();
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+
+    private InterconnectEndpoints(List<Endpoint> endpoints) {
+        this.endpoints = Collections.unmodifiableList(endpoints);
+    }
+
+    /**
+     * Parses the configured addresses of the remote node.
+     *
+     * @param addresses -- comma separated list of "host" or "host:port"
+     * @param defaultPort -- port of the addresses without a port
+     * @return the endpoints
+     * @throws IllegalArgumentException if no or an invalid address has been given
+     */
+    public static InterconnectEndpoints parse(String addresses, String defaultPort) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String address : addresses.split(",")) {
+            address = address.trim();
+            if (address.isEmpty()) {
+                continue;
+            }
+            int colon = address.lastIndexOf(':');
+            String host = colon < 0 ? address : address.substring(0, colon).trim();
+            String port = colon < 0 ? defaultPort.trim() : address.substring(colon + 1).trim();
+            if (host.isEmpty() || !port.matches("\\d{1,5}")) {
+                throw new IllegalArgumentException("Invalid address [" + address + "]");
+            }
+            // host names are not case sensitive, leading zeros of the port don't change it
+            endpoints.add(new Endpoint(host.toLowerCase(Locale.ROOT), String.valueOf(Integer.parseInt(port)),
+                    endpoints.size()));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("No address given");
+        }
+        return new InterconnectEndpoints(endpoints);
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the address of the first configured endpoint, e.g. as default name of the remote node.
+     *
+     * @return address as "host:port"
+     */
+    public String getPrimaryAddress() {
+        return endpoints.get(0).getAddress();
+    }
+
+    /**
+     * Returns a key of the remote node, which does not depend on the order, spacing or repetition of the configured
+     * addresses, so all things connected to the same node get the same key.
+     *
+     * @return the sorted addresses as "host:port", separated by commas
+     */
+    public String getNodeKey() {
+        Set<String> addresses = new TreeSet<>();
+        for (Endpoint endpoint : endpoints) {
+            addresses.add(endpoint.getAddress());
+        }
+        return String.join(",", addresses);
+    }
+
+    /**
+     * Returns the endpoints in the order they should be tried: an endpoint due for a probe first, then the healthy
+     * endpoints by their latency, then the failed endpoints by the order of the configuration. If a probe is due, it
+     * is scheduled for the next retry delay, so only one request is used for it.
+     *
+     * @return all endpoints in the order of their preference
+     */
+    public List<Endpoint> candidates() {
+        if (endpoints.size() == 1) {
+            return endpoints;
+        }
+        long now = System.nanoTime();
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+        List<Endpoint> failed = new ArrayList<>(endpoints.size());
+        Endpoint probe = null;
+        for (Endpoint endpoint : endpoints) {
+            synchronized (endpoint) {
+                if (endpoint.healthy) {
+                    healthy.add(endpoint);
+                } else if (probe == null && now - endpoint.retryAt >= 0) {
+                    endpoint.retryAt = now + RETRY_DELAY;
+                    probe = endpoint;
+                } else {
+                    failed.add(endpoint);
+                }
+            }
+        }
+        healthy.sort(Comparator.comparingDouble(Endpoint::getLatency).thenComparingInt(e -> e.index));
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        if (probe != null) {
+            candidates.add(probe);
+        }
+        candidates.addAll(healthy);
+        candidates.addAll(failed);
+        return candidates;
+    }
+
+    /**
+     * Records a successful request.
+     *
+     * @param endpoint -- the endpoint used
+     * @param nanos -- duration of the request
+     * @return true if the endpoint has been failed before
+     */
+    public boolean recordSuccess(Endpoint endpoint, long nanos) {
+        synchronized (endpoint) {
+            endpoint.latency = endpoint.latency == 0 ? nanos
+                    : EWMA_WEIGHT * nanos + (1 - EWMA_WEIGHT) * endpoint.latency;
+            boolean recovered = !endpoint.healthy;
+            endpoint.healthy = true;
+            return recovered;
+        }
+    }
+
+    /**
+     * Records a failed request. The endpoint is skipped until its retry delay has passed.
+     *
+     * @param endpoint -- the endpoint used
+     * @return true if the endpoint has been healthy before
+     */
+    public boolean recordFailure(Endpoint endpoint) {
+        synchronized (endpoint) {
+            boolean failed = endpoint.healthy;
+            endpoint.healthy = false;
+            endpoint.retryAt = System.nanoTime() + RETRY_DELAY;
+            return failed;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return endpoints.toString();
+    }
+}
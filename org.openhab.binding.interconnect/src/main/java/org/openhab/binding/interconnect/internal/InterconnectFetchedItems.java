@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectFetchedItems} keeps the items of one complete fetch, split into the slices of the shards. In
+ * the item list modes the remote node returns all items with every request, so the items are fetched and decoded once
+ * per refresh period and every shard takes its own slice.
+ *
+ * A slice is only handed out once and only within the refresh period of the fetch. It is not handed out, if the item
+ * event stream, which covers the changes since the fetch, has been replaced or has lost events.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectFetchedItems {
+
+    private final List<@Nullable List<OpenHabInterconnectBindingRemoteItem>> slices;
+    @Nullable
+    private final InterconnectItemEvents events;
+    private final long expiry;
+
+    /**
+     * Creates empty slices.
+     *
+     * @param shardCount -- number of shards
+     * @param maxAge -- time in milliseconds, after which the items have to be fetched again
+     * @param events -- the item event stream open at the time of the fetch or null
+     */
+    public InterconnectFetchedItems(int shardCount, long maxAge, @Nullable InterconnectItemEvents events) {
+        this.slices = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            slices.add(new ArrayList<>());
+        }
+        this.events = events;
+        this.expiry = System.currentTimeMillis() + maxAge;
+    }
+
+    /**
+     * Adds a fetched item to the slice of its shard.
+     *
+     * @param shard -- shard of the item
+     * @param item -- the item
+     */
+    public synchronized void add(int shard, OpenHabInterconnectBindingRemoteItem item) {
+        List<OpenHabInterconnectBindingRemoteItem> slice = slices.get(shard);
+        if (slice != null) {
+            slice.add(item);
+        }
+    }
+
+    /**
+     * Takes the slice of a shard.
+     *
+     * @param shard -- the shard
+     * @param events -- the item event stream open now or null
+     * @return the items of the shard or null, if the slice has been taken or is outdated
+     */
+    public synchronized @Nullable List<OpenHabInterconnectBindingRemoteItem> take(int shard,
+            @Nullable InterconnectItemEvents events) {
+        if (shard >= slices.size() || events != this.events || (events != null && !events.isCurrent())
+                || System.currentTimeMillis() >= expiry) {
+            return null;
+        }
+        List<OpenHabInterconnectBindingRemoteItem> slice = slices.get(shard);
+        slices.set(shard, null);
+        return slice;
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectFlightRecorder} emits the Java Flight Recorder events for one synchronization cycle, one
+ * remote command or one wait for the rate limiter. If the JVM has no Flight Recorder or no recording is running, a
+ * disabled instance is returned and all calls are no-ops.
+ *
+ * The events import jdk.jfr, which is not part of the JavaSE-1.8 execution environment of the binding. They are
+ * therefore built separately in the org.openhab.binding.interconnect.jfr fragment and loaded by their class name. The
+ * recorder stays disabled, if the fragment is not installed or the framework does not export jdk.jfr.
+ *
+ * A recorder is not thread safe, every cycle, pipeline stage, command and wait gets its own instance.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectFlightRecorder {
+
+    /**
+     * The phases of a synchronization cycle.
+     */
+    public enum Phase {
+        FETCH("fetch"),
+        DECODE("decode"),
+        RECONCILE("reconcile"),
+        FILE_WRITE("file write"),
+        SITEMAP_WRITE("sitemap write"),
+        REGISTRY_APPLY("registry apply");
+
+        private final String label;
+
+        private Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * An event of the Flight Recorder, which is implemented by the fragment.
+     */
+    interface Event {
+        boolean isEnabled();
+
+        void begin();
+
+        /**
+         * Ends and commits the event. Values, which the event does not record, are ignored.
+         *
+         * @param items -- number of processed items
+         * @param payloadLength -- length of the processed payload in characters
+         * @param outcome -- outcome of the event
+         */
+        void commit(int items, long payloadLength, String outcome);
+    }
+
+    /**
+     * The factory of the events, which is implemented by the fragment.
+     */
+    interface EventFactory {
+        Event createSync(String node, int shard);
+
+        Event createPhase(String node, String phase);
+
+        Event createCommand(String node, String item);
+
+        Event createQueueWait(String node, String kind, String priority);
+    }
+
+    private static final String EVENT_FACTORY_CLASS =
+            "org.openhab.binding.interconnect.internal.InterconnectFlightEvents";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+
+    @Nullable
+    private static final EventFactory EVENTS = loadEventFactory();
+    private static final InterconnectFlightRecorder DISABLED = new InterconnectFlightRecorder("");
+
+    private final String node;
+    private final Deque<Phase> phases = new ArrayDeque<>();
+    private final Deque<Event> phaseEvents = new ArrayDeque<>();
+    @Nullable
+    private Event syncEvent;
+    @Nullable
+    private Event commandEvent;
+    @Nullable
+    private Event queueWaitEvent;
+    private long payloadLength;
+    // phases are recorded outside of a synchronization cycle, see beginStage
+    private boolean stage;
+
+    private InterconnectFlightRecorder(String node) {
+        this.node = node;
+    }
+
+    /**
+     * Returns a recorder which does not emit any events.
+     *
+     * @return disabled recorder
+     */
+    public static InterconnectFlightRecorder disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Starts the event for a synchronization cycle.
+     *
+     * @param node -- id of the synchronized node
+     * @param shard -- the synchronized shard
+     * @return the recorder for the cycle
+     */
+    public static InterconnectFlightRecorder beginSync(String node, int shard) {
+        EventFactory events = EVENTS;
+        if (events == null) {
+            return DISABLED;
+        }
+        Event event = events.createSync(node, shard);
+        if (!event.isEnabled()) {
+            return DISABLED;
+        }
+        InterconnectFlightRecorder recorder = new InterconnectFlightRecorder(node);
+        event.begin();
+        recorder.syncEvent = event;
+        return recorder;
+    }
+
+    /**
+     * Returns a recorder for the phases of a pipeline stage, which runs outside of the synchronizing thread.
+     *
+     * @param node -- id of the synchronized node
+     * @return the recorder for the stage
+     */
+    public static InterconnectFlightRecorder beginStage(String node) {
+        EventFactory events = EVENTS;
+        // a stage has no event of its own, so ask a phase event whether a recording is running
+        if (events == null || !events.createPhase(node, "").isEnabled()) {
+            return DISABLED;
+        }
+        InterconnectFlightRecorder recorder = new InterconnectFlightRecorder(node);
+        recorder.stage = true;
+        return recorder;
+    }
+
+    /**
+     * Starts the event for a command sent to the remote node.
+     *
+     * @param node -- id of the node
+     * @param item -- name of the remote item
+     * @return the recorder for the command
+     */
+    public static InterconnectFlightRecorder beginCommand(String node, String item) {
+        EventFactory events = EVENTS;
+        if (events == null) {
+            return DISABLED;
+        }
+        Event event = events.createCommand(node, item);
+        if (!event.isEnabled()) {
+            return DISABLED;
+        }
+        InterconnectFlightRecorder recorder = new InterconnectFlightRecorder(node);
+        event.begin();
+        recorder.commandEvent = event;
+        return recorder;
+    }
+
+    /**
+     * Starts the event for a request waiting for the rate limiter of the remote node.
+     *
+     * @param node -- address of the remote node
+     * @param kind -- name of the kind of the request
+     * @param priority -- name of the priority of the request
+     * @return the recorder for the wait
+     */
+    public static InterconnectFlightRecorder beginQueueWait(String node, String kind, String priority) {
+        EventFactory events = EVENTS;
+        if (events == null) {
+            return DISABLED;
+        }
+        Event event = events.createQueueWait(node, kind, priority);
+        if (!event.isEnabled()) {
+            return DISABLED;
+        }
+        InterconnectFlightRecorder recorder = new InterconnectFlightRecorder(node);
+        event.begin();
+        recorder.queueWaitEvent = event;
+        return recorder;
+    }
+
+    /**
+     * Starts a phase of the synchronization cycle. Phases may be nested, every phase has to be ended by
+     * {@link #endPhase(Phase, int, long, boolean)}.
+     *
+     * @param phase
+     */
+    public void beginPhase(Phase phase) {
+        EventFactory events = EVENTS;
+        if (events == null || (syncEvent == null && !stage)) {
+            return;
+        }
+        Event event = events.createPhase(node, phase.getLabel());
+        event.begin();
+        phases.push(phase);
+        phaseEvents.push(event);
+    }
+
+    /**
+     * Ends the phase. Nested phases, which have not been ended yet, are committed as failed.
+     *
+     * @param phase -- the phase to end
+     * @param items -- number of items processed in this phase
+     * @param payloadLength -- length of the payload processed in this phase in characters or 0
+     * @param success -- outcome of the phase
+     */
+    public void endPhase(Phase phase, int items, long payloadLength, boolean success) {
+        Phase begun;
+        while ((begun = phases.poll()) != null) {
+            Event event = phaseEvents.pop();
+            if (begun == phase) {
+                commit(event, items, payloadLength, success);
+                if (phase == Phase.FETCH) {
+                    this.payloadLength += payloadLength;
+                }
+                return;
+            }
+            commit(event, 0, 0, false);
+        }
+    }
+
+    /**
+     * Ends the synchronization cycle. Phases which have not been ended are committed as failed.
+     *
+     * @param items -- number of items received from the remote node
+     * @param success -- outcome of the cycle
+     */
+    public void endSync(int items, boolean success) {
+        Event event = this.syncEvent;
+        if (event == null) {
+            return;
+        }
+        Event phase;
+        while ((phase = phaseEvents.poll()) != null) {
+            commit(phase, 0, 0, false);
+        }
+        phases.clear();
+        commit(event, items, payloadLength, success);
+        this.syncEvent = null;
+    }
+
+    /**
+     * Ends the command event.
+     *
+     * @param payloadLength -- length of the command value in characters
+     * @param success -- outcome of the command
+     */
+    public void endCommand(long payloadLength, boolean success) {
+        Event event = this.commandEvent;
+        if (event == null) {
+            return;
+        }
+        commit(event, 0, payloadLength, success);
+        this.commandEvent = null;
+    }
+
+    /**
+     * Ends the wait for the rate limiter.
+     *
+     * @param success -- true if the request got its permit, false if it has been dropped
+     */
+    public void endQueueWait(boolean success) {
+        Event event = this.queueWaitEvent;
+        if (event == null) {
+            return;
+        }
+        commit(event, 0, 0, success);
+        this.queueWaitEvent = null;
+    }
+
+    private void commit(Event event, int items, long payloadLength, boolean success) {
+        event.commit(items, payloadLength, success ? OUTCOME_SUCCESS : OUTCOME_FAILURE);
+    }
+
+    private static @Nullable EventFactory loadEventFactory() {
+        try {
+            // the fragment is attached to the class loader of the binding
+            Class<?> factoryClass = Class.forName(EVENT_FACTORY_CLASS, true,
+                    InterconnectFlightRecorder.class.getClassLoader());
+            return (EventFactory) factoryClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            // the fragment is not installed or jdk.jfr is not available
+            return null;
+        }
+    }
+}
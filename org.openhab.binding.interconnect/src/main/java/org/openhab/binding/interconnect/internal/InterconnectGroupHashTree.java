@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectGroupHashTree} is a hash tree over the group hierarchy of the items.
+ *
+ * The group names of the items form the tree, items without groups and groups without a parent are children of a
+ * virtual root. Every item has a leaf hash over its state and configuration, every group has a hash over its own leaf
+ * and its whole subtree. Two trees are compared from the root, subtrees with the same hash are skipped as a whole, so
+ * only the changed groups have to be looked at.
+ *
+ * A tree is immutable after it has been built.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectGroupHashTree {
+
+    // key of the virtual root node, no item name can be empty
+    private static final String ROOT = "";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // leaf hash of every item
+    private final Map<String, Long> leafHashes = new HashMap<>();
+    // direct members of every group, including the virtual root
+    private final Map<String, List<String>> members = new HashMap<>();
+    // hash over the subtree of every group
+    private final Map<String, Long> subtreeHashes = new HashMap<>();
+
+    private InterconnectGroupHashTree() {
+    }
+
+    /**
+     * Builds the hash tree over the items.
+     *
+     * @param items -- the items, identified by their local names
+     * @return the hash tree
+     */
+    public static InterconnectGroupHashTree build(Collection<OpenHabInterconnectBindingRemoteItem> items) {
+        InterconnectGroupHashTree tree = new InterconnectGroupHashTree();
+        tree.members.put(ROOT, new ArrayList<>());
+        for (OpenHabInterconnectBindingRemoteItem item : items) {
+            tree.leafHashes.put(item.getName(), leafHash(item));
+            List<String> groupNames = item.getGroupNames();
+            if (groupNames == null || groupNames.isEmpty()) {
+                tree.members.get(ROOT).add(item.getName());
+            } else {
+                for (String groupName : groupNames) {
+                    tree.members.computeIfAbsent(groupName, k -> new ArrayList<>()).add(item.getName());
+                }
+            }
+        }
+        // groups which are not part of another group are children of the root
+        List<String> roots = tree.members.get(ROOT);
+        for (String group : tree.members.keySet()) {
+            if (!ROOT.equals(group) && !tree.leafHashes.containsKey(group)) {
+                roots.add(group);
+            }
+        }
+        tree.subtreeHash(ROOT, new HashSet<>());
+        return tree;
+    }
+
+    /**
+     * Returns the hash over all items.
+     *
+     * @return the root hash
+     */
+    public long getRootHash() {
+        return subtreeHashes.get(ROOT);
+    }
+
+    public int size() {
+        return leafHashes.size();
+    }
+
+    /**
+     * Compares this tree with another one and returns the names of all items, which have been added, removed or
+     * changed. Groups with the same subtree hash in both trees are skipped.
+     *
+     * @param previous -- the tree to compare with
+     * @return local names of the changed items
+     */
+    public Set<String> changedItems(InterconnectGroupHashTree previous) {
+        if (getRootHash() == previous.getRootHash() && size() == previous.size()) {
+            return Collections.emptySet();
+        }
+        Set<String> changed = new HashSet<>();
+        compare(previous, ROOT, changed, new HashSet<>());
+        return changed;
+    }
+
+    private void compare(InterconnectGroupHashTree previous, String group, Set<String> changed, Set<String> visited) {
+        if (!visited.add(group)) {
+            return;
+        }
+        List<String> currentMembers = members.getOrDefault(group, Collections.emptyList());
+        for (String member : currentMembers) {
+            if (!Objects.equals(leafHashes.get(member), previous.leafHashes.get(member))) {
+                changed.add(member);
+            }
+            if (members.containsKey(member)
+                    && !Objects.equals(subtreeHashes.get(member), previous.subtreeHashes.get(member))) {
+                compare(previous, member, changed, visited);
+            }
+        }
+        // members which are no longer part of this group
+        for (String member : previous.members.getOrDefault(group, Collections.emptyList())) {
+            if (!leafHashes.containsKey(member)) {
+                changed.add(member);
+            }
+            if (!members.containsKey(member)) {
+                previous.collectRemoved(this, member, changed, visited);
+            }
+        }
+    }
+
+    /**
+     * Collects the items of the subtree of a group, which has been removed from the current tree.
+     */
+    private void collectRemoved(InterconnectGroupHashTree current, String group, Set<String> changed,
+            Set<String> visited) {
+        if (!visited.add(group)) {
+            return;
+        }
+        for (String member : members.getOrDefault(group, Collections.emptyList())) {
+            if (!current.leafHashes.containsKey(member)) {
+                changed.add(member);
+            }
+            if (members.containsKey(member) && !current.members.containsKey(member)) {
+                collectRemoved(current, member, changed, visited);
+            }
+        }
+    }
+
+    private long subtreeHash(String group, Set<String> inProgress) {
+        Long known = subtreeHashes.get(group);
+        if (known != null) {
+            return known;
+        }
+        if (!inProgress.add(group)) {
+            // cyclic group membership, the group is already part of the hash
+            return 0;
+        }
+        Long leaf = leafHashes.get(group);
+        long hash = mix(leaf == null ? 0 : leaf);
+        for (String member : members.getOrDefault(group, Collections.emptyList())) {
+            // the sum does not depend on the order of the members
+            hash += mix(leafHashes.getOrDefault(member, 0L));
+            if (members.containsKey(member)) {
+                hash += mix(subtreeHash(member, inProgress));
+            }
+        }
+        inProgress.remove(group);
+        subtreeHashes.put(group, hash);
+        return hash;
+    }
+
+    private static long leafHash(OpenHabInterconnectBindingRemoteItem item) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, item.getName());
+        hash = hash(hash, item.getRemoteName());
+        hash = hash(hash, item.getType());
+        hash = hash(hash, item.getLabel());
+        hash = hash(hash, item.getState());
+        hash = hash(hash, item.getOrigin());
+        hash = hash(hash, Integer.toString(item.getHops()));
+        List<String> groupNames = item.getGroupNames();
+        if (groupNames != null) {
+            for (String groupName : groupNames) {
+                hash = hash(hash, groupName);
+            }
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, @Nullable String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= FNV_PRIME;
+            }
+        }
+        // separator, so that ("ab", "c") and ("a", "bc") differ
+        hash ^= 0xff;
+        return hash * FNV_PRIME;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -18,6 +18,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.file.Files;
@@ -26,30 +27,50 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotUniqueException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.core.types.UnDefType;
+import org.openhab.binding.interconnect.internal.InterconnectFlightRecorder.Phase;
+import org.openhab.binding.interconnect.internal.InterconnectRateLimiter.LimitExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,7 +78,10 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * The {@link InterconnectHandler} is responsible for handling commands, which are
@@ -66,16 +90,48 @@ import com.google.gson.JsonParser;
  * @author Zim - Initial contribution
  */
 @NonNullByDefault
-public class InterconnectHandler extends BaseThingHandler {
-
-    // map for storing remote items
-    private Map<String, OpenHabInterconnectBindingRemoteItem> itemsLocal;
-    // list for storing remote items (their names are the keys) which were recognized
-    private List<String> usedKeys;
+public class InterconnectHandler extends BaseThingHandler implements ItemRegistryChangeListener {
+
+    // time to wait for the file observer to add a generated item to the item registry
+    private static final long PENDING_STATE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+    // upper limit for the number of shards
+    private static final int MAX_SHARDS = 64;
+    // commands of the outbox sent at once and pause between these batches, so a recovering node is not flooded
+    private static final int OUTBOX_BATCH_SIZE = 10;
+    private static final long OUTBOX_BATCH_PAUSE = TimeUnit.SECONDS.toMillis(1);
+    // lookups for the item of a command, the item registry may not have the new state at the first lookup
+    private static final int COMMAND_LOOKUPS = 3;
+    private static final long COMMAND_LOOKUP_DELAY = 300;
+    // changes of the local items kept for downstream consumers
+    private static final int CHANGE_FEED_SIZE = 1024;
+    // pause before a cycle, which has exceeded the sync budget, is continued
+    private static final long SYNC_RESUME_DELAY = 100;
+    // trace messages kept for the console
+    private static final int TRACE_SIZE = 1000;
+    // pause between removing and replacing the generated sitemap files, so the model repository notices the removal
+    private static final long SITEMAP_SWAP_PAUSE = 1500;
+
+    // immutable snapshot of the remote items, replaced after every reconciliation
+    private InterconnectItemStore itemsLocal = new InterconnectItemStore();
+    // set for storing remote items (their names are the keys) which were recognized
+    private Set<String> usedKeys;
     private JsonParser parser;
     private Gson itemConverter;
     // openhab2's registry for items
     private ItemRegistry itemRegistry;
+    // states of items, which have not been added to the item registry yet, with the deadline for the item
+    private final Map<String, Long> pendingStates = new ConcurrentHashMap<>();
+    // states sent to the remote node, which are not confirmed yet
+    private final InterconnectStateOrigin stateOrigin = new InterconnectStateOrigin();
+    // latest changes of the local items made by the synchronization, see getChangeFeed
+    private final InterconnectChangeFeed changeFeed = new InterconnectChangeFeed(CHANGE_FEED_SIZE);
+    private final InterconnectTraceBuffer trace = new InterconnectTraceBuffer(TRACE_SIZE);
+    // duration, end, shard, size and result of the latest synchronization cycle, shown by the console
+    private volatile long lastCycleNanos = -1;
+    private volatile long lastCycleEnd;
+    private volatile int lastCycleShard;
+    private volatile int lastCycleItems;
+    private volatile boolean lastCycleSucceeded;
     private File itemsFile;
     private File sitemapFile;
     // id of this binding/thing instance, given by openhab2
@@ -88,12 +144,86 @@ public class InterconnectHandler extends BaseThingHandler {
 
     private final InterconnectConnections connections = new InterconnectConnections();
 
-    ScheduledFuture<?> refreshJob;
+    // one synchronization job per shard
+    private final List<ScheduledFuture<?>> refreshJobs = new ArrayList<>();
+    // shards of the remote items, synchronized one after another within the refresh period
+    private InterconnectShards shards = new InterconnectShards(1);
+    // job for the items of the hot lane, which are refreshed one by one at a high frequency
+    @Nullable
+    ScheduledFuture<?> hotRefreshJob;
+    // filter selecting the items of the hot lane
+    @Nullable
+    private InterconnectItemFilter hotItemFilter;
+    // local names of the items in the hot lane, updated after every synchronization
+    private volatile List<String> hotItemNames = Collections.emptyList();
+    // true while a full synchronization has been scheduled but not started yet
+    private final AtomicBoolean synchronizationScheduled = new AtomicBoolean();
+
+    // stages of the synchronization running on their own executors
+    @Nullable
+    private InterconnectPipeline pipeline;
+    // set by the reconciliation, if the sitemap files have to be rendered after the items have been published
+    private boolean sitemapWriteNeeded;
+
+    // time a sitemap is polled, after subscribing to its events has failed
+    private static final long SITEMAP_SUBSCRIPTION_RETRY = TimeUnit.MINUTES.toMillis(10);
+    // subscriptions to the events of the remote sitemaps in the sitemap selection modes
+    private final Map<String, InterconnectSitemapSubscription> sitemapSubscriptions = new ConcurrentHashMap<>();
+    // time after which subscribing to a sitemap is tried again
+    private final Map<String, Long> sitemapSubscriptionRetries = new ConcurrentHashMap<>();
+    private final ThreadFactory sitemapEventThreads = new NamedThreadFactory("interconnect-events", true);
+
+    // limiter shared with all other things connected to the same remote node
+    @Nullable
+    private InterconnectRateLimiter rateLimiter;
+
+    // tracks if the remote node is reachable
+    private final InterconnectCircuitBreaker breaker = new InterconnectCircuitBreaker();
+    // commands made while the remote node is unreachable
+    @Nullable
+    private InterconnectOutbox outbox;
+    // job sending the commands of the outbox
+    @Nullable
+    private ScheduledFuture<?> outboxJob;
+    // true while the outbox is sent
+    private final AtomicBoolean outboxFlushing = new AtomicBoolean();
+
+    // pushes the state changes of selected local items to the remote node
+    @Nullable
+    private volatile InterconnectMirror mirror;
+
+    // name of this node in a relay chain, null if the relay mode is off
+    @Nullable
+    private String relayNodeName;
+    // name of the remote node, which is the origin of its items without relay tags
+    private String remoteNodeName = "";
+    // item events of the remote node in the relay mode, so only the changed states are forwarded
+    @Nullable
+    private volatile InterconnectItemEvents itemEvents;
+    // time after which opening the item events is tried again
+    private long itemEventsRetry;
+
+    // responses of at least this size in characters are decoded in parallel, 0 decodes all responses sequentially
+    private volatile long parallelDecodeSize;
+
+    // time in nanoseconds a cycle may spend on the changes of a shard, 0 for no limit
+    private volatile long syncBudget;
+    // changes of the shards left by the last cycle, which has exceeded the sync budget
+    private final Map<Integer, InterconnectSyncCursor> syncCursors = new ConcurrentHashMap<>();
+    // items of the last complete fetch in the item list modes, the other shards take their slices from it
+    @Nullable
+    private volatile InterconnectFetchedItems fetchedItems;
+    // job continuing the shards with remaining changes
+    @Nullable
+    private ScheduledFuture<?> resumeJob;
 
     private final String itemsFileFolder = "/items/";
     private final String sitemapsFileFolder = "/sitemaps/";
     private final String itemsFileEnding = ".items";
     private final String sitemapsFileEnding = ".sitemap";
+    private final String traceFileFolder = "/interconnect/";
+    private final String traceFileEnding = ".trace.gz";
+    private final String outboxFileEnding = ".outbox";
     // header for generated site map
     private String sitemapStart;
 
@@ -102,11 +232,37 @@ public class InterconnectHandler extends BaseThingHandler {
     private enum ItemSelection {
         DEFAULT,
         SITEMAPS_ALL,
-        SITEMAPS_SELECTION
+        SITEMAPS_SELECTION,
+        FILTER
     }
 
     private ItemSelection selConf;
 
+    private enum SitemapLayout {
+        // all items in one generated sitemap
+        FLAT,
+        // one generated sitemap per remote sitemap or group
+        PAGES
+    }
+
+    private SitemapLayout sitemapLayout = SitemapLayout.FLAT;
+    // rendered content of the generated sitemap pages, pages are only rewritten if their content changes
+    private final Map<String, String> pageContents = new ConcurrentHashMap<>();
+    private volatile long sitemapSwapPause = SITEMAP_SWAP_PAUSE;
+
+    // filter for the remote items in the item selection FILTER
+    @Nullable
+    private InterconnectItemFilter itemFilter;
+
+    @Nullable
+    private InterconnectTraceRecorder traceRecorder;
+    @Nullable
+    private InterconnectTraceReplayer traceReplayer;
+    private double traceSpeed = 1;
+
+    // Flight Recorder events of the running synchronization cycle
+    private InterconnectFlightRecorder flightRecorder = InterconnectFlightRecorder.disabled();
+
     @Nullable
     private InterconnectConfiguration config;
 
@@ -118,16 +274,13 @@ public class InterconnectHandler extends BaseThingHandler {
     @Override
     public void initialize() {
         config = getConfigAs(InterconnectConfiguration.class);
-        itemsLocal = new ConcurrentHashMap<>();
-        usedKeys = new ArrayList<>();
+        itemsLocal = new InterconnectItemStore();
+        usedKeys = new HashSet<>();
         parser = new JsonParser();
         itemConverter = new Gson();
 
-        logger.info(config.sitemapName);
-        logger.info(config.refreshTime);
-        logger.info(config.nodeIPAddress);
-        logger.info(config.port);
-        logger.info(config.systemFolderPath);
+        logger.debug("Sitemap {}, refresh time {}, remote node {}:{}, system folder {}", config.sitemapName,
+                config.refreshTime, config.nodeIPAddress, config.port, config.systemFolderPath);
 
         // get Binding UID
         localThingID = thing.getUID().getAsString();
@@ -141,41 +294,876 @@ public class InterconnectHandler extends BaseThingHandler {
             return;
         }
 
-        // validate files and paths
-        if (!validateThingPathConf(config.systemFolderPath)) {
-            logger.error("No valid openhab2 path configured for interconnect binding.");
-            updateStatus(ThingStatus.UNINITIALIZED);
+        // validate files and paths
+        if (!validateThingPathConf(config.systemFolderPath)) {
+            logger.error("No valid openhab2 path configured for interconnect binding.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // config Connection
+        if (!validateEndpointsConf()) {
+            logger.error("No valid node address configured for interconnect binding.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // validate rate limit configuration
+        if (!validateRateLimitConf()) {
+            logger.error("No valid rate limit configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // validate sitemap layout configuration
+        if (!validateSitemapLayoutConf()) {
+            logger.error("No valid sitemap layout configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // validate shard configuration
+        if (!validateShardsConf()) {
+            logger.error("No valid shards configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // validate hot lane configuration
+        if (!validateHotItemsConf()) {
+            logger.error("No valid hot items configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // capture or replay the traffic with the remote node
+        if (!configureTrace()) {
+            logger.error("No valid trace configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // keep commands made while the remote node is unreachable
+        if (!configureOutbox()) {
+            logger.error("No valid outbox configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // mark relayed items and refuse items originating from this node
+        validateRelayConf();
+
+        // bound the time of a cycle
+        if (!validateSyncBudgetConf()) {
+            logger.error("No valid sync budget for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // decode large responses in parallel
+        if (!validateParallelDecodeConf()) {
+            logger.error("No valid parallel decode size for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        // push selected local items to the remote node
+        if (!validateMirrorConf()) {
+            logger.error("No valid mirror configuration for binding Interconnect.");
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+
+        this.pipeline = new InterconnectPipeline(localThingID);
+
+        updateStatus(ThingStatus.ONLINE);
+
+        // apply states of generated items as soon as the file observer has added them to the registry
+        itemRegistry.addRegistryChangeListener(this);
+
+        if (logger.isDebugEnabled()) {
+            // the test requests are only sent to be logged
+            try {
+                logger.debug(connections.getSpecificItemDataFromNode("interconnect_test_for_sitemap"));
+                logger.debug(connections.getAllSitemapDatasFromNode());
+                logger.debug(connections.getSpecificSitemapDataFromNode("test"));
+            } catch (Exception e) {
+                logger.error(e.getMessage());
+            }
+        }
+        InterconnectTraceReplayer replayer = this.traceReplayer;
+        if (replayer != null) {
+            // feed the recorded traffic into the synchronization instead of polling the remote node
+            double speed = this.traceSpeed;
+            // every recorded cycle belongs to one shard, the shards have been recorded in turn
+            AtomicInteger nextShard = new AtomicInteger();
+            refreshJobs.add(scheduler.schedule(() -> replayer.replay(() -> {
+                synchronized (lock) {
+                    synchronizeLocaleNode(nextShard.getAndIncrement() % shards.count());
+                }
+            }, speed), 0, TimeUnit.SECONDS));
+            return;
+        }
+        scheduleSynchronizationJobs(TimeUnit.SECONDS.toMillis(20));
+        scheduleHotRefreshJob();
+    }
+
+    /**
+     * Schedules the jobs for the node synchronization with remote, the shards are spread over the refresh period.
+     *
+     * @param initialDelay -- delay of the first shard in milliseconds
+     */
+    private void scheduleSynchronizationJobs(long initialDelay) {
+        long period = getRefreshPeriod();
+        for (int i = 0; i < shards.count(); i++) {
+            int shard = i;
+            refreshJobs.add(scheduler.scheduleWithFixedDelay(() -> {
+                synchronized (lock) {
+                    synchronizeLocaleNode(shard);
+                }
+            }, initialDelay + shards.offset(shard, period), period, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Returns the period, in which all shards are synchronized.
+     *
+     * @return refresh period in milliseconds
+     */
+    private long getRefreshPeriod() {
+        long refreshTimeIntervall = Long.parseLong(config.refreshTime);
+        if (refreshTimeIntervall == 0) {
+            refreshTimeIntervall = 60;
+        }
+        return TimeUnit.SECONDS.toMillis(refreshTimeIntervall);
+    }
+
+    /**
+     * Schedules the job for the hot lane, if hot items have been configured.
+     */
+    private void scheduleHotRefreshJob() {
+        if (hotItemFilter != null) {
+            long hotRefreshTime = Long.parseLong(config.hotRefreshTime);
+            hotRefreshJob = scheduler.scheduleWithFixedDelay(this::refreshHotItems, hotRefreshTime, hotRefreshTime,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Cancels the synchronization jobs and the job of the hot lane. Also used by the soak test, which runs the cycles
+     * itself.
+     */
+    void cancelJobs() {
+        for (ScheduledFuture<?> refreshJob : refreshJobs) {
+            refreshJob.cancel(true);
+        }
+        refreshJobs.clear();
+        if (hotRefreshJob != null) {
+            hotRefreshJob.cancel(true);
+            hotRefreshJob = null;
+        }
+        dropSyncCursors();
+    }
+
+    /**
+     * Drops the changes left by cycles, which have exceeded the sync budget, and cancels their continuation. The items
+     * fetched for other shards are dropped as well. The shards are fetched again by their next cycle.
+     */
+    private void dropSyncCursors() {
+        if (resumeJob != null) {
+            resumeJob.cancel(true);
+            resumeJob = null;
+        }
+        syncCursors.clear();
+        fetchedItems = null;
+    }
+
+    @Override
+    public void handleConfigurationUpdate(Map<String, Object> configurationParameters) {
+        InterconnectConfiguration previous = this.config;
+        if (previous == null || !isInitialized() || getThing().getStatus() == ThingStatus.UNINITIALIZED) {
+            super.handleConfigurationUpdate(configurationParameters);
+            return;
+        }
+        Configuration configuration = editConfiguration();
+        for (Map.Entry<String, Object> parameter : configurationParameters.entrySet()) {
+            configuration.put(parameter.getKey(), parameter.getValue());
+        }
+        InterconnectConfiguration next = configuration.as(InterconnectConfiguration.class);
+        if (!Objects.equals(previous.systemFolderPath, next.systemFolderPath)) {
+            // the generated files move to the new folder
+            deleteGeneratedFiles();
+        }
+        if (!Objects.equals(previous.systemFolderPath, next.systemFolderPath)
+                || !Objects.equals(previous.traceMode, next.traceMode)
+                || !Objects.equals(previous.traceFile, next.traceFile)
+                || !Objects.equals(previous.traceSpeed, next.traceSpeed)
+                || !Objects.equals(previous.outboxMaxAge, next.outboxMaxAge)
+                || !Objects.equals(previous.outboxSize, next.outboxSize)) {
+            // files, traces and the outbox are opened during the initialization only
+            super.handleConfigurationUpdate(configurationParameters);
+            return;
+        }
+        validateConfigurationParameters(configurationParameters);
+        updateConfiguration(configuration);
+        synchronized (lock) {
+            applyConfiguration(previous, next);
+        }
+    }
+
+    /**
+     * Applies the changed configuration without tearing down the generated items. Only the parts affected by the
+     * changed parameters are set up again.
+     *
+     * @param previous -- the configuration in use
+     * @param next -- the changed configuration
+     */
+    private void applyConfiguration(InterconnectConfiguration previous, InterconnectConfiguration next) {
+        this.config = next;
+        // the items fetched for the other shards may not match the new configuration
+        fetchedItems = null;
+        boolean reschedule = !Objects.equals(previous.refreshTime, next.refreshTime);
+        boolean rescheduleHotLane = false;
+        boolean renderSitemaps = false;
+        boolean synchronize = false;
+        boolean valid = true;
+        if (!Objects.equals(previous.sitemapName, next.sitemapName)) {
+            sitemapStart = setTokenData();
+            pageContents.clear();
+            renderSitemaps = true;
+        }
+        if (!Objects.equals(previous.relayNodeName, next.relayNodeName)
+                || !Objects.equals(previous.remoteNodeName, next.remoteNodeName)) {
+            // the synchronization rewrites the items with the new relay tags
+            closeItemEvents();
+            validateRelayConf();
+            synchronize = true;
+        }
+        if (!Objects.equals(previous.itemSelection, next.itemSelection)) {
+            // the synchronization adds and removes the items, which differ between the old and new selection
+            closeSitemapSubscriptions();
+            closeItemEvents();
+            valid &= validateItSelConf();
+            synchronize = true;
+        }
+        if (!Objects.equals(previous.nodeIPAddress, next.nodeIPAddress)
+                || !Objects.equals(previous.port, next.port)) {
+            closeSitemapSubscriptions();
+            closeItemEvents();
+            valid &= validateEndpointsConf();
+            valid &= validateRateLimitConf();
+            // the default name of the remote node is its address
+            validateRelayConf();
+            synchronize = true;
+        } else if (!Objects.equals(previous.maxReadsPerSecond, next.maxReadsPerSecond)
+                || !Objects.equals(previous.maxWritesPerSecond, next.maxWritesPerSecond)
+                || !Objects.equals(previous.maxConcurrentRequests, next.maxConcurrentRequests)) {
+            valid &= validateRateLimitConf();
+        }
+        if (!Objects.equals(previous.sitemapLayout, next.sitemapLayout)) {
+            deletePageFiles();
+            valid &= validateSitemapLayoutConf();
+            renderSitemaps = true;
+        }
+        if (!Objects.equals(previous.shards, next.shards)) {
+            valid &= validateShardsConf();
+            assignShards();
+            reschedule = true;
+        }
+        if (!Objects.equals(previous.hotItems, next.hotItems)
+                || !Objects.equals(previous.hotRefreshTime, next.hotRefreshTime)) {
+            valid &= validateHotItemsConf();
+            updateHotItems(itemsLocal.snapshot());
+            rescheduleHotLane = true;
+        }
+        if (!Objects.equals(previous.parallelDecodeSize, next.parallelDecodeSize)) {
+            valid &= validateParallelDecodeConf();
+        }
+        if (!Objects.equals(previous.syncBudget, next.syncBudget)) {
+            valid &= validateSyncBudgetConf();
+        }
+        if (!Objects.equals(previous.mirrorItems, next.mirrorItems)
+                || !Objects.equals(previous.mirrorInterval, next.mirrorInterval)) {
+            valid &= validateMirrorConf();
+        }
+        if (!valid) {
+            logger.error("No valid configuration for binding Interconnect.");
+            cancelJobs();
+            updateStatus(ThingStatus.UNINITIALIZED);
+            return;
+        }
+        logger.info("Configuration of binding Interconnect updated.");
+        if (traceReplayer == null) {
+            if (reschedule) {
+                for (ScheduledFuture<?> refreshJob : refreshJobs) {
+                    refreshJob.cancel(false);
+                }
+                refreshJobs.clear();
+                scheduleSynchronizationJobs(0);
+            }
+            if (rescheduleHotLane) {
+                if (hotRefreshJob != null) {
+                    hotRefreshJob.cancel(false);
+                    hotRefreshJob = null;
+                }
+                scheduleHotRefreshJob();
+            }
+        }
+        if (renderSitemaps) {
+            writeSitemaps();
+        }
+        if (synchronize && !reschedule && traceReplayer == null) {
+            scheduleSynchronization();
+        }
+    }
+
+    /**
+     * Assigns the local items to the shards after the number of shards has changed. The changes left by previous cycles
+     * belong to the old shards, so they are dropped.
+     */
+    private void assignShards() {
+        dropSyncCursors();
+        Map<String, OpenHabInterconnectBindingRemoteItem> items = itemsLocal.edit();
+        boolean sitemaps = selConf == ItemSelection.SITEMAPS_ALL || selConf == ItemSelection.SITEMAPS_SELECTION;
+        for (Map.Entry<String, OpenHabInterconnectBindingRemoteItem> entry : items.entrySet()) {
+            OpenHabInterconnectBindingRemoteItem item = entry.getValue().withState(entry.getValue().getState());
+            item.setShard(sitemaps ? shards.shardOfSitemap(item.getPage()) : shards.shardOf(item));
+            entry.setValue(item);
+        }
+        itemsLocal.publish(items);
+    }
+
+    /**
+     * Validates the user configuration for the layout of the generated sitemap.
+     *
+     * @return true if no or a valid layout has been configured, else false
+     */
+    private boolean validateSitemapLayoutConf() {
+        pageContents.clear();
+        String layout = config.sitemapLayout == null ? "" : config.sitemapLayout.trim();
+        if (layout.isEmpty() || InterconnectBindingConstants.SITEMAP_LAYOUT_FLAT.equals(layout)) {
+            this.sitemapLayout = SitemapLayout.FLAT;
+            return true;
+        }
+        if (InterconnectBindingConstants.SITEMAP_LAYOUT_PAGES.equals(layout)) {
+            this.sitemapLayout = SitemapLayout.PAGES;
+            return true;
+        }
+        logger.error("Unknown sitemap layout [{}].", layout);
+        return false;
+    }
+
+    /**
+     * Validates the user configuration for the number of shards.
+     *
+     * @return true if no or a valid number of shards has been configured, else false
+     */
+    private boolean validateShardsConf() {
+        this.shards = new InterconnectShards(1);
+        if (config.shards == null || config.shards.trim().isEmpty()) {
+            return true;
+        }
+        try {
+            int count = Integer.parseInt(config.shards.trim());
+            if (count < 1 || count > MAX_SHARDS) {
+                logger.error("Number of shards [{}] must be between 1 and {}.", count, MAX_SHARDS);
+                return false;
+            }
+            this.shards = new InterconnectShards(count);
+        } catch (NumberFormatException e) {
+            logger.error("Invalid number of shards [{}].", config.shards);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Validates the user configuration for the addresses of the remote node. Several addresses of the same node, or of
+     * a node and its standby, can be given as comma separated list. Addresses without a port use the configured port.
+     *
+     * @return true if valid addresses have been configured, else false
+     */
+    private boolean validateEndpointsConf() {
+        if (config.nodeIPAddress == null) {
+            return false;
+        }
+        try {
+            connections.setEndpoints(InterconnectEndpoints.parse(config.nodeIPAddress,
+                    config.port == null ? "8080" : config.port));
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid node address [{}]: {}", config.nodeIPAddress, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Validates the user configuration for the rate limits and applies them to the limiter of the remote node, which
+     * is shared with all other things connected to the same node.
+     *
+     * @return true if valid rate limits have been configured, else false
+     */
+    private boolean validateRateLimitConf() {
+        releaseRateLimiter();
+        double reads;
+        double writes;
+        int concurrent;
+        try {
+            reads = parseLimit(config.maxReadsPerSecond, 10);
+            writes = parseLimit(config.maxWritesPerSecond, 10);
+            concurrent = (int) parseLimit(config.maxConcurrentRequests, 2);
+        } catch (NumberFormatException e) {
+            logger.error("Invalid rate limits [{}], [{}], [{}].", config.maxReadsPerSecond, config.maxWritesPerSecond,
+                    config.maxConcurrentRequests);
+            return false;
+        }
+        if (reads < 0 || writes < 0 || concurrent < 0) {
+            logger.error("Invalid rate limits [{}], [{}], [{}].", config.maxReadsPerSecond, config.maxWritesPerSecond,
+                    config.maxConcurrentRequests);
+            return false;
+        }
+        // the key does not depend on how the addresses of the node are written
+        InterconnectRateLimiter limiter = InterconnectRateLimiter.acquire(connections.getEndpoints().getNodeKey());
+        limiter.configure(reads, writes, concurrent);
+        this.rateLimiter = limiter;
+        connections.setRateLimiter(limiter);
+        return true;
+    }
+
+    private static double parseLimit(@Nullable String value, double defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private void releaseRateLimiter() {
+        connections.setRateLimiter(null);
+        InterconnectRateLimiter limiter = this.rateLimiter;
+        if (limiter != null) {
+            limiter.release();
+            this.rateLimiter = null;
+        }
+    }
+
+    /**
+     * Reads the user configuration for the relay mode. Without a name of the remote node the address of its first
+     * endpoint is used.
+     */
+    private void validateRelayConf() {
+        this.relayNodeName = config.relayNodeName == null || config.relayNodeName.trim().isEmpty() ? null
+                : config.relayNodeName.trim();
+        this.remoteNodeName = config.remoteNodeName == null || config.remoteNodeName.trim().isEmpty()
+                ? connections.getEndpoints().getPrimaryAddress()
+                : config.remoteNodeName.trim();
+    }
+
+    /**
+     * Validates the user configuration for the time budget of a synchronization cycle.
+     *
+     * @return true if a valid budget has been configured, else false
+     */
+    private boolean validateSyncBudgetConf() {
+        try {
+            long budget = config.syncBudget == null || config.syncBudget.trim().isEmpty() ? 0
+                    : Long.parseLong(config.syncBudget.trim());
+            if (budget < 0) {
+                logger.error("Invalid sync budget [{}].", config.syncBudget);
+                return false;
+            }
+            this.syncBudget = TimeUnit.MILLISECONDS.toNanos(budget);
+            return true;
+        } catch (NumberFormatException e) {
+            logger.error("Invalid sync budget [{}].", config.syncBudget);
+            return false;
+        }
+    }
+
+    /**
+     * Validates the user configuration for the parallel decode of large responses.
+     *
+     * @return true if a valid size has been configured, else false
+     */
+    private boolean validateParallelDecodeConf() {
+        try {
+            long size = config.parallelDecodeSize == null || config.parallelDecodeSize.trim().isEmpty() ? 4096
+                    : Long.parseLong(config.parallelDecodeSize.trim());
+            if (size < 0) {
+                logger.error("Invalid parallel decode size [{}].", config.parallelDecodeSize);
+                return false;
+            }
+            this.parallelDecodeSize = size * 1024;
+            return true;
+        } catch (NumberFormatException e) {
+            logger.error("Invalid parallel decode size [{}].", config.parallelDecodeSize);
+            return false;
+        }
+    }
+
+    /**
+     * Marks a remote item with its origin node and the number of hops in the relay mode. Items, which have been relayed
+     * by another node before, keep their origin and the hops are counted up. Items originating from this node are
+     * refused, so a ring of nodes does not relay its items forever.
+     *
+     * @param remoteItem -- the remote item
+     * @return false if the item originates from this node
+     */
+    private boolean markRelay(OpenHabInterconnectBindingRemoteItem remoteItem) {
+        String nodeName = this.relayNodeName;
+        if (nodeName == null) {
+            return true;
+        }
+        String origin = remoteNodeName;
+        int hops = 0;
+        List<String> tags = remoteItem.getTags();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag.startsWith(InterconnectBindingConstants.RELAY_TAG_ORIGIN)) {
+                    origin = tag.substring(InterconnectBindingConstants.RELAY_TAG_ORIGIN.length());
+                } else if (tag.startsWith(InterconnectBindingConstants.RELAY_TAG_HOPS)) {
+                    try {
+                        hops = Integer.parseInt(tag.substring(InterconnectBindingConstants.RELAY_TAG_HOPS.length()));
+                    } catch (NumberFormatException e) {
+                        // counted as first hop
+                    }
+                }
+            }
+        }
+        if (nodeName.equals(origin)) {
+            logger.debug("Item [{}] originates from this node, it is not relayed back.", remoteItem.getRemoteName());
+            return false;
+        }
+        remoteItem.setRelay(origin, hops + 1);
+        return true;
+    }
+
+    /**
+     * Returns the items of the shard with the states received by the item events, if the events cover all changes of
+     * the shard. In the relay mode the events are opened before the items are fetched completely.
+     *
+     * @param shard -- the shard to return the items for
+     * @return copies of the local items with the latest remote states or null, if the items have to be fetched
+     */
+    private @Nullable List<OpenHabInterconnectBindingRemoteItem> getItemsFromEvents(int shard) {
+        if (relayNodeName == null || traceRecorder != null || traceReplayer != null) {
+            return null;
+        }
+        InterconnectItemEvents events = this.itemEvents;
+        if (events != null && events.covers(shard) && !itemsLocal.isEmpty()) {
+            List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
+            for (OpenHabInterconnectBindingRemoteItem item : itemsLocal.snapshot().values()) {
+                if (item.getShard() == shard) {
+                    String state = events.getState(item.getRemoteName());
+                    items.add(item.withState(state == null ? item.getState() : state));
+                }
+            }
+            return items;
+        }
+        if ((events == null || !events.isCurrent()) && System.currentTimeMillis() >= itemEventsRetry) {
+            closeItemEvents();
+            try {
+                this.itemEvents = InterconnectItemEvents.open(connections, sitemapEventThreads);
+            } catch (IOException e) {
+                logger.debug("Unable to open item events of remote node, all items are polled: {}", e.getMessage());
+                itemEventsRetry = System.currentTimeMillis() + SITEMAP_SUBSCRIPTION_RETRY;
+            }
+        }
+        return null;
+    }
+
+    private void closeItemEvents() {
+        InterconnectItemEvents events = this.itemEvents;
+        if (events != null) {
+            events.close();
+            this.itemEvents = null;
+        }
+        itemEventsRetry = 0;
+    }
+
+    /**
+     * Validates the user configuration for pushing local items to the remote node and sets up the mirror. No items
+     * are pushed while a trace is replayed.
+     *
+     * @return true if no or a valid mirror has been configured, else false
+     */
+    private boolean validateMirrorConf() {
+        closeMirror();
+        if (config.mirrorItems == null || config.mirrorItems.trim().isEmpty() || this.traceReplayer != null) {
+            return true;
+        }
+        try {
+            InterconnectItemFilter filter = InterconnectItemFilter.parse(config.mirrorItems.trim());
+            long interval = config.mirrorInterval == null || config.mirrorInterval.trim().isEmpty() ? 500
+                    : Long.parseLong(config.mirrorInterval.trim());
+            if (interval < 0) {
+                logger.error("Invalid mirror interval [{}].", config.mirrorInterval);
+                return false;
+            }
+            this.mirror = new InterconnectMirror(filter, scheduler, interval, this::pushLocalState);
+        } catch (NumberFormatException e) {
+            logger.error("Invalid mirror interval [{}].", config.mirrorInterval);
+            return false;
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid mirror items filter [{}]: {}", config.mirrorItems, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void closeMirror() {
+        InterconnectMirror mirror = this.mirror;
+        if (mirror != null) {
+            mirror.close();
+            this.mirror = null;
+        }
+    }
+
+    /**
+     * Returns the feed of the changes, which the synchronization has made to the generated items. Consumers read the
+     * changes after the last sequence number they have seen, instead of reading all items again.
+     *
+     * @return the change feed
+     */
+    public InterconnectChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Returns the trace of the thing, which the console turns on for a limited time.
+     *
+     * @return the trace buffer
+     */
+    public InterconnectTraceBuffer getTrace() {
+        return trace;
+    }
+
+    /**
+     * Returns the item counts, the timings of the latest synchronization cycle and the depths of the queues.
+     *
+     * @return lines to be shown by the console
+     */
+    public List<String> getStatistics() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Remote node: " + connections.getEndpoints() + (breaker.isOpen() ? " (unreachable)" : ""));
+        lines.add("Items: " + itemsLocal.size() + " local, " + pendingStates.size() + " waiting for the registry, "
+                + hotItemNames.size() + " hot");
+        lines.add("Shards: " + shards.count() + ", " + shards.failedCount() + " failed, " + syncCursors.size()
+                + " with remaining changes");
+        long nanos = lastCycleNanos;
+        if (nanos < 0) {
+            lines.add("Last cycle: none");
+        } else {
+            lines.add(String.format("Last cycle: shard %d, %d items, %.1f ms, %s, %d s ago", lastCycleShard,
+                    lastCycleItems, nanos / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                    lastCycleSucceeded ? "succeeded" : "failed",
+                    TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - lastCycleEnd)));
+        }
+        InterconnectPipeline pipeline = this.pipeline;
+        if (pipeline != null) {
+            lines.add("Stages: " + pipeline.getSummary());
+        }
+        InterconnectOutbox outbox = this.outbox;
+        InterconnectMirror mirror = this.mirror;
+        lines.add("Queues: outbox " + (outbox == null ? "-" : String.valueOf(outbox.size())) + ", mirror "
+                + (mirror == null ? "-" : String.valueOf(mirror.getPendingCount())) + ", pending commands "
+                + stateOrigin.size());
+        InterconnectRateLimiter rateLimiter = this.rateLimiter;
+        if (rateLimiter != null) {
+            StringBuilder waits = new StringBuilder("Rate limiter waits:");
+            for (InterconnectRateLimiter.Priority priority : InterconnectRateLimiter.Priority.values()) {
+                waits.append(String.format(" %s %d requests %.1f ms (max %.1f)",
+                        priority.name().toLowerCase(Locale.ROOT), rateLimiter.getRequests(priority),
+                        rateLimiter.getAverageWait(priority), rateLimiter.getMaxWait(priority)));
+            }
+            lines.add(waits.toString());
+        }
+        lines.add("Change feed: last sequence " + changeFeed.getLastSequence());
+        return lines;
+    }
+
+    /**
+     * Synchronizes all shards at once and waits for the synchronization, e.g. requested by the console.
+     *
+     * @return time taken in milliseconds
+     * @throws IllegalStateException if the thing is not running
+     */
+    public long synchronizeNow() {
+        synchronized (lock) {
+            if (pipeline == null) {
+                throw new IllegalStateException("Thing " + thing.getUID() + " is not running.");
+            }
+            long start = System.nanoTime();
+            synchronizeLocaleNode();
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Called by the handler factory for every state change of a local item. The change is queued for the remote node,
+     * if the item is selected for mirroring. Items generated by this thing are never pushed back to their origin.
+     *
+     * @param itemName -- name of the local item
+     * @param state -- the new state
+     */
+    public void localItemStateChanged(String itemName, State state) {
+        InterconnectMirror mirror = this.mirror;
+        if (mirror == null || state instanceof UnDefType || itemsLocal.snapshot().containsKey(itemName)) {
+            return;
+        }
+        Item item = itemRegistry.get(itemName);
+        if (item != null && mirror.isMirrored(item)) {
+            mirror.offer(itemName, InterconnectStateCodec.encode(state));
+        }
+    }
+
+    /**
+     * Sends the state of a local item to the item of the same name on the remote node.
+     */
+    private void pushLocalState(String itemName, String value) throws IOException {
+        if (breaker.isOpen()) {
+            throw new IOException("Remote node is unreachable");
+        }
+        InterconnectFlightRecorder commandRecorder = InterconnectFlightRecorder.beginCommand(localThingID, itemName);
+        try {
+            connections.setItemValueRemoteNode(itemName, value);
+            commandRecorder.endCommand(value.length(), true);
+        } catch (IOException e) {
+            commandRecorder.endCommand(value.length(), false);
+            if (!(e instanceof LimitExceededException)) {
+                breaker.trip();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Validates the user configuration for the hot lane.
+     *
+     * @return true if no hot lane or a valid hot lane has been configured, else false
+     */
+    private boolean validateHotItemsConf() {
+        this.hotItemFilter = null;
+        this.hotItemNames = Collections.emptyList();
+        if (config.hotItems == null || config.hotItems.trim().isEmpty()) {
+            return true;
+        }
+        try {
+            this.hotItemFilter = InterconnectItemFilter.parse(config.hotItems.trim());
+            if (config.hotRefreshTime == null || Long.parseLong(config.hotRefreshTime) <= 0) {
+                logger.error("Invalid refresh time for hot items [{}].", config.hotRefreshTime);
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            logger.error("Invalid refresh time for hot items [{}].", config.hotRefreshTime);
+            return false;
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid hot items filter [{}]: {}", config.hotItems, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Refreshes the items of the hot lane one by one.
+     */
+    private void refreshHotItems() {
+        for (String key : hotItemNames) {
+            refreshRemoteItem(key);
+        }
+    }
+
+    /**
+     * Collects the local names of the items, which belong to the hot lane.
+     *
+     * @param items -- the current local items
+     */
+    private void updateHotItems(Map<String, OpenHabInterconnectBindingRemoteItem> items) {
+        InterconnectItemFilter filter = this.hotItemFilter;
+        if (filter == null) {
             return;
         }
+        List<String> names = new ArrayList<>();
+        for (OpenHabInterconnectBindingRemoteItem item : items.values()) {
+            if (filter.matches(item)) {
+                names.add(item.getName());
+            }
+        }
+        this.hotItemNames = Collections.unmodifiableList(names);
+    }
 
-        // config Connection
-        if (config.nodeIPAddress != null) {
-            connections.setIPAddress(config.nodeIPAddress);
+    /**
+     * Sets up recording or replaying of the traffic with the remote node according to the trace configuration.
+     * Without a configured trace file the trace is stored in the folder "interconnect" of the configuration folder.
+     *
+     * @return true if a valid configuration has been made, else false
+     */
+    private boolean configureTrace() {
+        String mode = config.traceMode == null ? "" : config.traceMode.trim();
+        if (mode.isEmpty() || InterconnectBindingConstants.TRACE_MODE_OFF.equals(mode)) {
+            return true;
         }
-        if (config.port != null) {
-            connections.setPort(config.port);
+        File file = (config.traceFile == null || config.traceFile.trim().isEmpty())
+                ? new File(config.systemFolderPath + traceFileFolder + localThingID + traceFileEnding)
+                : new File(config.traceFile.trim());
+        try {
+            switch (mode) {
+                case InterconnectBindingConstants.TRACE_MODE_RECORD:
+                    this.traceRecorder = new InterconnectTraceRecorder(file);
+                    connections.setTraceRecorder(this.traceRecorder);
+                    logger.info("Recording traffic with remote node to trace [{}].", file.getPath());
+                    return true;
+                case InterconnectBindingConstants.TRACE_MODE_REPLAY:
+                    if (config.traceSpeed != null && !config.traceSpeed.trim().isEmpty()) {
+                        this.traceSpeed = Double.parseDouble(config.traceSpeed.trim());
+                    }
+                    this.traceReplayer = InterconnectTraceReplayer.load(file);
+                    connections.setTraceReplayer(this.traceReplayer);
+                    logger.info("Replaying traffic with remote node from trace [{}].", file.getPath());
+                    return true;
+                default:
+                    logger.error("Unknown trace mode [{}].", mode);
+                    return false;
+            }
+        } catch (NumberFormatException e) {
+            logger.error("Invalid trace speed [{}].", config.traceSpeed);
+            return false;
+        } catch (IOException e) {
+            logger.error("Unable to open trace [{}]: {}", file.getPath(), e.getMessage());
+            return false;
         }
+    }
 
-        updateStatus(ThingStatus.ONLINE);
-
-        long refreshTimeIntervall = Long.parseLong(config.refreshTime);
-        if (refreshTimeIntervall == 0) {
-            refreshTimeIntervall = 60;
+    /**
+     * Opens the outbox for commands, which are made while the remote node is unreachable. The outbox is stored in the
+     * folder "interconnect" of the configuration folder. No outbox is used while a trace is replayed.
+     *
+     * @return true if a valid configuration has been made, else false
+     */
+    private boolean configureOutbox() {
+        this.outbox = null;
+        if (this.traceReplayer != null) {
+            return true;
         }
-
+        File file = getOutboxFile();
         try {
-            logger.info(connections.getSpecificItemDataFromNode("interconnect_test_for_sitemap"));
-            logger.info(connections.getAllSitemapDatasFromNode());
-            logger.info(connections.getSpecificSitemapDataFromNode("test"));
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        }
-        // schedule job for node synchronization with remote
-        refreshJob = scheduler.scheduleWithFixedDelay(() -> {
-            synchronized (lock) {
-                synchronizeLocaleNode();
+            long maxAge = config.outboxMaxAge == null || config.outboxMaxAge.trim().isEmpty() ? 3600
+                    : Long.parseLong(config.outboxMaxAge.trim());
+            int maxSize = config.outboxSize == null || config.outboxSize.trim().isEmpty() ? 1000
+                    : Integer.parseInt(config.outboxSize.trim());
+            if (maxAge <= 0 || maxSize <= 0) {
+                logger.error("Invalid outbox maximum age [{}] or size [{}].", config.outboxMaxAge, config.outboxSize);
+                return false;
             }
-        }, 20, refreshTimeIntervall, TimeUnit.SECONDS);
+            this.outbox = new InterconnectOutbox(file, TimeUnit.SECONDS.toMillis(maxAge), maxSize);
+            return true;
+        } catch (NumberFormatException e) {
+            logger.error("Invalid outbox maximum age [{}] or size [{}].", config.outboxMaxAge, config.outboxSize);
+            return false;
+        } catch (IOException e) {
+            logger.error("Unable to open outbox [{}]: {}", file.getPath(), e.getMessage());
+            return false;
+        }
+    }
+
+    private File getOutboxFile() {
+        return new File(config.systemFolderPath + traceFileFolder + localThingID + outboxFileEnding);
     }
 
     /**
@@ -188,6 +1176,17 @@ public class InterconnectHandler extends BaseThingHandler {
         if (conf == null) {
             return false;
         }
+        this.itemFilter = null;
+        if (InterconnectItemFilter.isFilter(conf)) {
+            try {
+                this.itemFilter = InterconnectItemFilter.parse(conf);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid item filter [{}]: {}", conf, e.getMessage());
+                return false;
+            }
+            this.selConf = ItemSelection.FILTER;
+            return true;
+        }
         if (conf.contains(",")) {
             String[] sitemapNames = conf.split(",");
             if (sitemapNames.length == 0) {
@@ -265,68 +1264,132 @@ public class InterconnectHandler extends BaseThingHandler {
     }
 
     /**
-     * Synchronizes local node with remote node according to the item selection configuration.
+     * Synchronizes all shards of the local node with the remote node.
      */
     private void synchronizeLocaleNode() {
+        for (int shard = 0; shard < shards.count(); shard++) {
+            synchronizeLocaleNode(shard);
+        }
+    }
+
+    /**
+     * Synchronizes one shard of the local node with the remote node according to the item selection configuration.
+     *
+     * @param shard -- the shard to synchronize
+     */
+    private void synchronizeLocaleNode(int shard) {
         boolean excaptionThrowed = false;
+        // the rate limiter has dropped a request, the remote node has not failed
+        boolean limited = false;
         List<OpenHabInterconnectBindingRemoteItem> remoteItems = null;
+        long cycleStart = System.nanoTime();
+        connections.markCycle();
+        flightRecorder = InterconnectFlightRecorder.beginSync(localThingID, shard);
+        // remote states read in this cycle are older than all commands sent from now on
+        long inboundSequence = stateOrigin.nextSequence();
+        // a cursor saved by this cycle is dropped, if the number of shards changes meanwhile
+        int shardCount = shards.count();
+        InterconnectSyncCursor cursor = syncCursors.remove(shard);
+        if (cursor != null && (!cursor.hasShardCount(shardCount) || cursor.isExpired(getRefreshPeriod()))) {
+            cursor = null;
+        }
         try {
-            // check item selection configuration and pull necessary items from remote
-            switch (this.selConf) {
-                case DEFAULT:
-                    remoteItems = getAllItemsFromRemote();
-                    break;
-                case SITEMAPS_ALL:
-                    remoteItems = getItemsFromAllSitemaps();
-                    break;
-                case SITEMAPS_SELECTION:
-                    remoteItems = new ArrayList<>();
-                    for (String remoteSitemap : this.remoteSitemaps) {
-                        List<OpenHabInterconnectBindingRemoteItem> itemsToAdd = new ArrayList<>();
-                        List<OpenHabInterconnectBindingRemoteItem> rIt = getItemsFromSitemap(remoteSitemap);
-                        if (rIt == null || rIt.isEmpty()) {
-                            logger.warn("No items for sitemap [" + remoteSitemap + "] found.");
-                            continue;
-                        }
-                        boolean add = true;
-                        if (!remoteItems.isEmpty()) {
-                            for (OpenHabInterconnectBindingRemoteItem it1 : rIt) {
-                                for (OpenHabInterconnectBindingRemoteItem it2 : remoteItems) {
-                                    if (it1.getRemoteName().contentEquals(it2.getRemoteName())) {
-                                        add = false;
-                                        break;
-                                    }
-                                }
-                                if (add) {
-                                    itemsToAdd.add(it1);
-                                } else {
-                                    add = true;
-                                }
+            if (cursor != null && !itemsLocal.isEmpty()) {
+                // continue with the changes left by the previous cycle, the remote items are not fetched again
+                remoteItems = new ArrayList<>(cursor.getRemoteItems());
+                inboundSequence = cursor.getInboundSequence();
+            } else if (itemsLocal.isEmpty()) {
+                // the generated files are written once with the items of all shards, so that unchanged files survive
+                // a restart of the binding
+                remoteItems = new ArrayList<>();
+                Set<String> names = new HashSet<>();
+                for (int i = 0; i < shards.count(); i++) {
+                    List<OpenHabInterconnectBindingRemoteItem> shardItems = fetchRemoteItems(i);
+                    if (shardItems != null) {
+                        for (OpenHabInterconnectBindingRemoteItem remoteItem : shardItems) {
+                            if (names.add(remoteItem.getName())) {
+                                remoteItems.add(remoteItem);
                             }
-                            remoteItems.addAll(itemsToAdd);
-                        } else {
-                            remoteItems.addAll(rIt);
                         }
                     }
-                    break;
-                default:
-                    updateStatus(ThingStatus.UNINITIALIZED);
-                    throw new IllegalStateException(
-                            "Internal error in binding Interconnect during local synchronization. Setting binding state to UNINITIALIZED.");
+                }
+            } else {
+                remoteItems = fetchRemoteItems(shard);
             }
             // start synchronization of local node by adding or updating the items
             if (remoteItems != null && !remoteItems.isEmpty()) {
-                if (itemsLocal.isEmpty()) {
-                    addRemoteItemsToLocalNode(remoteItems);
+                if (selConf == ItemSelection.SITEMAPS_ALL || selConf == ItemSelection.SITEMAPS_SELECTION) {
+                    // items of several sitemaps belong to the shard, which has added them first
+                    Map<String, OpenHabInterconnectBindingRemoteItem> current = itemsLocal.snapshot();
+                    remoteItems.removeIf(remoteItem -> {
+                        OpenHabInterconnectBindingRemoteItem localItem = current.get(remoteItem.getName());
+                        return localItem != null && localItem.getShard() != shard;
+                    });
+                }
+                if (cursor == null) {
+                    for (OpenHabInterconnectBindingRemoteItem remoteItem : remoteItems) {
+                        remoteItem.setVersion(inboundSequence);
+                    }
+                }
+                flightRecorder.beginPhase(Phase.RECONCILE);
+                long reconcileStart = System.nanoTime();
+                long budget = this.syncBudget;
+                Long deadline = budget > 0 ? reconcileStart + budget : null;
+                sitemapWriteNeeded = false;
+                Map<String, OpenHabInterconnectBindingRemoteItem> items = itemsLocal.edit();
+                Set<String> changedItems = null;
+                if (items.isEmpty()) {
+                    addRemoteItemsToLocalNode(items, remoteItems);
                 } else {
-                    computeRemoteData(remoteItems);
+                    // only the subtrees, which differ from the local items, have to be reconciled
+                    changedItems = cursor != null ? new HashSet<>(cursor.getPendingNames())
+                            : InterconnectGroupHashTree.build(remoteItems).changedItems(itemsLocal.hashTree(shard));
+                    if (changedItems.isEmpty()) {
+                        flightRecorder.endPhase(Phase.RECONCILE, 0, 0, true);
+                        expirePendingStates();
+                        logger.debug("No changes on remote node [{}].", config.nodeIPAddress);
+                        return;
+                    }
+                    Set<String> remaining = computeRemoteData(items, remoteItems, changedItems, shard,
+                            inboundSequence, deadline);
+                    if (!remaining.isEmpty()) {
+                        // the next cycle of the shard starts soon and continues with the remaining changes
+                        logger.debug("Sync budget of shard {} exceeded, {} of {} changes left for the next cycle.",
+                                shard, remaining.size(), changedItems.size());
+                        syncCursors.put(shard, new InterconnectSyncCursor(remoteItems, remaining, inboundSequence,
+                                shardCount));
+                        scheduleResume();
+                        changedItems = new HashSet<>(changedItems);
+                        changedItems.removeAll(remaining);
+                    }
+                }
+                // readers will see the reconciled items from now on
+                itemsLocal.publish(items);
+                updateHotItems(items);
+                int reconciled = changedItems == null ? remoteItems.size() : changedItems.size();
+                flightRecorder.endPhase(Phase.RECONCILE, reconciled, 0, true);
+                recordStage(InterconnectPipeline.Stage.RECONCILE, reconcileStart);
+                if (sitemapWriteNeeded) {
+                    // the sitemap files are written while the states are applied
+                    sitemapWriteNeeded = false;
+                    writeSitemaps();
+                }
+                flightRecorder.beginPhase(Phase.REGISTRY_APPLY);
+                long applyStart = System.nanoTime();
+                int statesApplied = synchronizeLocalStates(changedItems);
+                flightRecorder.endPhase(Phase.REGISTRY_APPLY, statesApplied, 0, true);
+                recordStage(InterconnectPipeline.Stage.APPLY, applyStart);
+                if (logger.isTraceEnabled()) {
+                    printRemoteItemsFromRegistry();
                 }
-                synchronizeLocalStates();
-                printRemoteItemsFromRegistry();
             } else {
-                logger.info("*** No items on remote node [" + config.nodeIPAddress + "] found. ***");
+                logger.debug("No items on remote node [{}] found.", config.nodeIPAddress);
             }
 
+        } catch (LimitExceededException e) {
+            excaptionThrowed = true;
+            limited = true;
+            logger.warn("Synchronization of shard {} skipped: {}", shard, e.getMessage());
         } catch (IOException ioException) {
             excaptionThrowed = true;
             logger.error("Communication Error: " + ioException.getMessage());
@@ -340,58 +1403,392 @@ public class InterconnectHandler extends BaseThingHandler {
             logger.info(
                     "=== Stopping synchronization. Reconfigure or rebind the Interconnect Binding to restart the synchronization. ===");
         } finally {
-            if (excaptionThrowed) {
-                if (this.getThing().getStatus() != ThingStatus.OFFLINE) {
-                    updateStatus(ThingStatus.OFFLINE);
+            flightRecorder.endSync(remoteItems == null ? 0 : remoteItems.size(), !excaptionThrowed);
+            flightRecorder = InterconnectFlightRecorder.disabled();
+            InterconnectPipeline pipeline = this.pipeline;
+            if (pipeline != null && logger.isDebugEnabled()) {
+                logger.debug("Synchronization stages of shard {}: {}", shard, pipeline.getSummary());
+            }
+            if (!limited) {
+                updateShardStatus(shard, !excaptionThrowed);
+            }
+            lastCycleNanos = System.nanoTime() - cycleStart;
+            lastCycleEnd = System.currentTimeMillis();
+            lastCycleShard = shard;
+            lastCycleItems = remoteItems == null ? 0 : remoteItems.size();
+            lastCycleSucceeded = !excaptionThrowed;
+            if (trace.isActive()) {
+                trace.add("Cycle of shard " + shard + ": " + lastCycleItems + " remote items in "
+                        + TimeUnit.NANOSECONDS.toMillis(lastCycleNanos) + " ms"
+                        + (excaptionThrowed ? ", failed" : ""));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries kept for single items besides the items themselves, e.g. states waiting for the
+     * item registry or commands waiting for their confirmation. It must not grow over a long uptime.
+     *
+     * @return number of entries
+     */
+    int getBookkeepingSize() {
+        return pendingStates.size() + stateOrigin.size() + usedKeys.size();
+    }
+
+    /**
+     * Waits until the queued writes of the sitemap files have been completed.
+     *
+     * @param timeout -- maximum time to wait in milliseconds
+     * @return true if the writes have been completed, false if the timeout has elapsed or the thing is not running
+     * @throws InterruptedException
+     */
+    boolean awaitWrites(long timeout) throws InterruptedException {
+        InterconnectPipeline pipeline = this.pipeline;
+        return pipeline != null && pipeline.awaitWrites(timeout);
+    }
+
+    /**
+     * Sets the pause between removing and replacing the generated sitemap files.
+     *
+     * @param pause -- the pause in milliseconds
+     */
+    void setSitemapSwapPause(long pause) {
+        this.sitemapSwapPause = pause;
+    }
+
+    /**
+     * Pulls the items of a shard from the remote node according to the item selection configuration.
+     *
+     * @param shard -- the shard to pull the items for
+     * @return the remote items of the shard or null
+     * @throws IOException
+     */
+    private @Nullable List<OpenHabInterconnectBindingRemoteItem> fetchRemoteItems(int shard) throws IOException {
+        List<OpenHabInterconnectBindingRemoteItem> remoteItems;
+        // check item selection configuration and pull necessary items from remote
+        switch (this.selConf) {
+            case DEFAULT:
+            case FILTER:
+                remoteItems = getAllItemsFromRemote(shard);
+                break;
+            case SITEMAPS_ALL:
+                remoteItems = getItemsFromAllSitemaps(shard);
+                break;
+            case SITEMAPS_SELECTION:
+                remoteItems = new ArrayList<>();
+                List<String> shardSitemaps = new ArrayList<>();
+                for (String remoteSitemap : this.remoteSitemaps) {
+                    if (shards.shardOfSitemap(remoteSitemap) == shard) {
+                        shardSitemaps.add(remoteSitemap);
+                    }
                 }
-            } else {
-                if (this.getThing().getStatus() != ThingStatus.ONLINE) {
-                    updateStatus(ThingStatus.ONLINE);
+                Map<String, @Nullable List<OpenHabInterconnectBindingRemoteItem>> sitemapItems = getItemsFromSitemaps(
+                        shardSitemaps);
+                for (String remoteSitemap : shardSitemaps) {
+                    List<OpenHabInterconnectBindingRemoteItem> itemsToAdd = new ArrayList<>();
+                    List<OpenHabInterconnectBindingRemoteItem> rIt = sitemapItems.get(remoteSitemap);
+                    if (rIt == null || rIt.isEmpty()) {
+                        logger.warn("No items for sitemap [" + remoteSitemap + "] found.");
+                        continue;
+                    }
+                    boolean add = true;
+                    if (!remoteItems.isEmpty()) {
+                        for (OpenHabInterconnectBindingRemoteItem it1 : rIt) {
+                            for (OpenHabInterconnectBindingRemoteItem it2 : remoteItems) {
+                                if (it1.getRemoteName().contentEquals(it2.getRemoteName())) {
+                                    add = false;
+                                    break;
+                                }
+                            }
+                            if (add) {
+                                itemsToAdd.add(it1);
+                            } else {
+                                add = true;
+                            }
+                        }
+                        remoteItems.addAll(itemsToAdd);
+                    } else {
+                        remoteItems.addAll(rIt);
+                    }
                 }
+                break;
+            default:
+                updateStatus(ThingStatus.UNINITIALIZED);
+                throw new IllegalStateException(
+                        "Internal error in binding Interconnect during local synchronization. Setting binding state to UNINITIALIZED.");
+        }
+        if (remoteItems != null) {
+            for (OpenHabInterconnectBindingRemoteItem remoteItem : remoteItems) {
+                remoteItem.setShard(shard);
+            }
+        }
+        return remoteItems;
+    }
+
+    /**
+     * Updates the thing status according to the result of a shard. The thing goes offline only if the last
+     * synchronization of all shards has failed.
+     *
+     * @param shard -- the synchronized shard
+     * @param success -- outcome of the synchronization
+     */
+    private void updateShardStatus(int shard, boolean success) {
+        if (success) {
+            if (breaker.recordSuccess()) {
+                logger.info("Remote node [{}] is reachable again.", config.nodeIPAddress);
             }
+            InterconnectOutbox outbox = this.outbox;
+            if (outbox != null && !outbox.isEmpty()) {
+                scheduleOutboxFlush();
+            }
+        } else if (breaker.recordFailure()) {
+            logger.warn("Remote node [{}] is unreachable, commands are stored in the outbox.", config.nodeIPAddress);
+        }
+        boolean changed = shards.setResult(shard, success);
+        int failed = shards.failedCount();
+        if (failed == shards.count()) {
+            if (this.getThing().getStatus() != ThingStatus.OFFLINE) {
+                updateStatus(ThingStatus.OFFLINE);
+            }
+        } else if (failed > 0) {
+            if (changed || this.getThing().getStatus() != ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE,
+                        "Synchronization of " + failed + " of " + shards.count() + " shards failed");
+            }
+        } else if (changed || this.getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
+        }
+    }
+
+    /**
+     * A request to the remote node.
+     */
+    @FunctionalInterface
+    private interface RemoteRequest {
+        @Nullable
+        String execute() throws IOException;
+    }
+
+    /**
+     * Executes the request to the remote node as fetch phase of the synchronization cycle.
+     *
+     * @param request
+     * @return the response of the remote node
+     * @throws IOException
+     */
+    private @Nullable String fetch(RemoteRequest request) throws IOException {
+        flightRecorder.beginPhase(Phase.FETCH);
+        boolean success = false;
+        String response = null;
+        long start = System.nanoTime();
+        try {
+            response = request.execute();
+            success = response != null;
+            return response;
+        } finally {
+            flightRecorder.endPhase(Phase.FETCH, 0, response == null ? 0 : response.length(), success);
+            recordStage(InterconnectPipeline.Stage.FETCH, start);
         }
     }
 
     /**
-     * Returns all items from the remote node as a list.
+     * Takes the next response fetched by the pipeline. The fetch phase covers the time waited for the response.
      *
-     * @return list of all remote items
+     * @param fetches -- the responses fetched by the pipeline
+     * @return the response of the remote node
      * @throws IOException
      */
-    private List<OpenHabInterconnectBindingRemoteItem> getAllItemsFromRemote() throws IOException {
-        List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
-        String response = connections.getAllItemsResponsefromNode(null);
+    private @Nullable String fetchNext(InterconnectPipeline.Fetches<String> fetches) throws IOException {
+        flightRecorder.beginPhase(Phase.FETCH);
+        boolean success = false;
+        String response = null;
+        try {
+            response = fetches.next();
+            success = response != null;
+            return response;
+        } finally {
+            flightRecorder.endPhase(Phase.FETCH, 0, response == null ? 0 : response.length(), success);
+        }
+    }
+
+    /**
+     * Adds the time since the start to a stage of the pipeline.
+     *
+     * @param stage -- the stage
+     * @param start -- start of the stage by {@link System#nanoTime()}
+     */
+    private void recordStage(InterconnectPipeline.Stage stage, long start) {
+        InterconnectPipeline pipeline = this.pipeline;
+        if (pipeline != null) {
+            pipeline.record(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns all items of the shard from the remote node as a list. If an item filter is configured, the criteria
+     * supported by the remote node are sent with the request and the remaining criteria are checked while decoding the
+     * response, before the items are built.
+     *
+     * The remote node returns the items of all shards with every request, so they are fetched and decoded once per
+     * refresh period. The following shards take their slices of this fetch, with the states received by the item
+     * events since then.
+     *
+     * @param shard -- the shard to return the items for
+     * @return list of all remote items of the shard
+     * @throws IOException
+     */
+    private List<OpenHabInterconnectBindingRemoteItem> getAllItemsFromRemote(int shard) throws IOException {
+        List<OpenHabInterconnectBindingRemoteItem> items = getItemsFromEvents(shard);
+        if (items != null) {
+            return items;
+        }
+        InterconnectItemEvents events = this.itemEvents;
+        InterconnectFetchedItems fetched = this.fetchedItems;
+        items = fetched == null ? null : fetched.take(shard, events);
+        if (items != null) {
+            if (events != null) {
+                for (int i = 0; i < items.size(); i++) {
+                    OpenHabInterconnectBindingRemoteItem item = items.get(i);
+                    String state = events.getState(item.getRemoteName());
+                    if (state != null) {
+                        items.set(i, item.withState(state));
+                    }
+                }
+                events.addShard(shard);
+            }
+            return items;
+        }
+        InterconnectItemFilter filter = this.itemFilter;
+        String query = filter == null ? null : filter.getQuery();
+        String response = fetch(() -> connections.getAllItemsResponsefromNode(query));
         if (response == null) {
             return null;
         }
-        JsonArray msg = parser.parse(response).getAsJsonArray();
-        if (msg.isJsonNull()) {
+        flightRecorder.beginPhase(Phase.DECODE);
+        long decodeStart = System.nanoTime();
+        long parallelSize = this.parallelDecodeSize;
+        items = parallelSize > 0 && response.length() >= parallelSize ? decodeItemsParallel(response, filter)
+                : decodeItems(response, filter, parser);
+        if (items == null) {
+            flightRecorder.endPhase(Phase.DECODE, 0, response.length(), false);
             return null;
         }
-        for (JsonElement item : msg) {
+        if (shards.count() > 1) {
+            fetched = new InterconnectFetchedItems(shards.count(), getRefreshPeriod(), events);
+            for (OpenHabInterconnectBindingRemoteItem item : items) {
+                fetched.add(shards.shardOf(item), item);
+            }
+            this.fetchedItems = fetched;
+            items = fetched.take(shard, events);
+            if (items == null) {
+                throw new IllegalStateException("Fetched items of shard " + shard + " are not available");
+            }
+        }
+        flightRecorder.endPhase(Phase.DECODE, items.size(), response.length(), true);
+        recordStage(InterconnectPipeline.Stage.DECODE, decodeStart);
+        if (events != null) {
+            // changes after this fetch are covered by the events
+            events.addShard(shard);
+        }
+        return items;
 
-            // convert json string to item
-            OpenHabInterconnectBindingRemoteItem remoteItem = itemConverter.fromJson(item.toString(),
-                    OpenHabInterconnectBindingRemoteItem.class);
-            remoteItem.setRemoteName(new String(remoteItem.getName()));
-            remoteItem.setName(createItemName(remoteItem.getName()));
-            remoteItem.setRemoteGroupNames(new ArrayList<>(remoteItem.getGroupNames()));
-            remoteItem.setGroupNames(createGroupNames(remoteItem.getRemoteGroupNames()));
-            items.add(remoteItem);
+    }
+
+    /**
+     * Decodes the JSON array of remote items. Items, which do not match the item filter, are skipped before they are
+     * built.
+     *
+     * @param json -- JSON array of remote items
+     * @param filter -- the item filter or null
+     * @param parser -- the parser, which is used by the calling thread only
+     * @return the items in the order of the array or null, if the JSON data is not an array
+     */
+    private @Nullable List<OpenHabInterconnectBindingRemoteItem> decodeItems(String json,
+            @Nullable InterconnectItemFilter filter, JsonParser parser) {
+        List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return null;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JsonElement item = parser.parse(reader);
+                if (filter != null && !filter.matchesRemaining(item.getAsJsonObject())) {
+                    continue;
+                }
+                // convert json to item
+                OpenHabInterconnectBindingRemoteItem remoteItem = createRemoteItem(item);
+                if (markRelay(remoteItem)) {
+                    items.add(remoteItem);
+                }
+            }
+            reader.endArray();
+        } catch (JsonParseException | IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return items;
+    }
+
+    /**
+     * Decodes a large JSON array of remote items in parallel. The array is split into chunks at the boundaries of its
+     * elements, the chunks are decoded on the common fork join pool and joined in their original order, so duplicate
+     * detection and reconciliation see the same order as with a sequential decode.
+     *
+     * @param json -- JSON array of remote items
+     * @param filter -- the item filter or null
+     * @return the items in the order of the array or null, if the JSON data is not an array
+     */
+    private @Nullable List<OpenHabInterconnectBindingRemoteItem> decodeItemsParallel(String json,
+            @Nullable InterconnectItemFilter filter) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // more chunks than threads, so a thread finishing early takes another chunk
+        List<String> chunks = InterconnectJsonChunks.split(json, Math.max(2, 2 * pool.getParallelism()));
+        if (chunks == null) {
+            return null;
+        }
+        List<ForkJoinTask<@Nullable List<OpenHabInterconnectBindingRemoteItem>>> tasks = new ArrayList<>();
+        for (String chunk : chunks) {
+            tasks.add(pool.submit(() -> decodeItems(chunk, filter, new JsonParser())));
+        }
+        List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
+        for (ForkJoinTask<@Nullable List<OpenHabInterconnectBindingRemoteItem>> task : tasks) {
+            List<OpenHabInterconnectBindingRemoteItem> chunkItems = task.join();
+            if (chunkItems != null) {
+                items.addAll(chunkItems);
+            }
         }
+        logger.debug("Decoded {} items from {} chunks in parallel.", items.size(), chunks.size());
         return items;
+    }
 
+    /**
+     * Converts the JSON data of a remote item into an item with local item and group names.
+     *
+     * @param item -- JSON data of the item
+     * @return the remote item
+     */
+    private OpenHabInterconnectBindingRemoteItem createRemoteItem(JsonElement item) {
+        OpenHabInterconnectBindingRemoteItem remoteItem = itemConverter.fromJson(item,
+                OpenHabInterconnectBindingRemoteItem.class);
+        remoteItem.setRemoteName(remoteItem.getName());
+        remoteItem.setName(createItemName(remoteItem.getName()));
+        remoteItem.setRemoteGroupNames(new ArrayList<>(remoteItem.getGroupNames()));
+        remoteItem.setGroupNames(createGroupNames(remoteItem.getRemoteGroupNames()));
+        // the item is shown on the page of its first group
+        remoteItem.setPage(remoteItem.getRemoteGroupNames().isEmpty() ? "" : remoteItem.getRemoteGroupNames().get(0));
+        return remoteItem;
     }
 
     /**
-     * Returns all items, referenced by *.sitemap files, from the remote node as a list.
+     * Returns all items, referenced by the *.sitemap files of the shard, from the remote node as a list.
      *
+     * @param shard -- the shard to return the items for
      * @return list of remote items or null
      * @throws IOException
      */
-    private List<OpenHabInterconnectBindingRemoteItem> getItemsFromAllSitemaps() throws IOException {
+    private List<OpenHabInterconnectBindingRemoteItem> getItemsFromAllSitemaps(int shard) throws IOException {
         List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
-        String response = connections.getAllSitemapDatasFromNode();
+        String response = fetch(() -> connections.getAllSitemapDatasFromNode());
         if (response == null) {
             return null;
         }
@@ -399,63 +1796,245 @@ public class InterconnectHandler extends BaseThingHandler {
         if (msg.isJsonNull()) {
             return null;
         }
+        List<String> sitemapNames = new ArrayList<>();
         for (JsonElement item : msg) {
 
             JsonObject jObject = item.getAsJsonObject();
-            items.addAll(getItemsFromSitemap(jObject.get(InterconnectBindingConstants.OPENHAB_NAME).getAsString()));
+            String sitemapName = jObject.get(InterconnectBindingConstants.OPENHAB_NAME).getAsString();
+            if (shards.shardOfSitemap(sitemapName) != shard) {
+                continue;
+            }
+            sitemapNames.add(sitemapName);
+        }
+        for (List<OpenHabInterconnectBindingRemoteItem> sitemapItems : getItemsFromSitemaps(sitemapNames).values()) {
+            if (sitemapItems != null) {
+                items.addAll(sitemapItems);
+            }
         }
         return items;
     }
 
     /**
-     * Returns all items, referenced by the specific *.sitemap file, from the remote node as a list.
+     * Returns the items of several sitemaps. The sitemaps, which are not followed by their events, are fetched by the
+     * pipeline, so the next sitemap is fetched while the current one is decoded.
+     *
+     * @param sitemapNames -- names of the *.sitemap files
+     * @return the items of every sitemap in the order of the names, null for a sitemap without data
+     * @throws IOException
+     */
+    private Map<String, @Nullable List<OpenHabInterconnectBindingRemoteItem>> getItemsFromSitemaps(
+            List<String> sitemapNames) throws IOException {
+        Map<String, @Nullable List<OpenHabInterconnectBindingRemoteItem>> result = new LinkedHashMap<>();
+        List<String> fetchNames = new ArrayList<>();
+        for (String sitemapName : sitemapNames) {
+            InterconnectSitemapSubscription subscription = sitemapSubscriptions.get(sitemapName);
+            if (subscription != null && subscription.isCurrent()) {
+                // the states are kept up to date by the events of the remote node
+                result.put(sitemapName, subscription.getItems());
+                continue;
+            }
+            if (subscription != null) {
+                subscription.close();
+                sitemapSubscriptions.remove(sitemapName, subscription);
+            }
+            result.put(sitemapName, null);
+            fetchNames.add(sitemapName);
+        }
+        InterconnectPipeline pipeline = this.pipeline;
+        if (pipeline == null) {
+            for (String sitemapName : fetchNames) {
+                String response = fetch(() -> connections.getSpecificSitemapDataFromNode(sitemapName));
+                result.put(sitemapName, response == null ? null : decodeSitemap(sitemapName, response));
+            }
+            return result;
+        }
+        try (InterconnectPipeline.Fetches<String> fetches = pipeline.fetch(fetchNames,
+                connections::getSpecificSitemapDataFromNode)) {
+            for (String sitemapName : fetchNames) {
+                String response = fetchNext(fetches);
+                result.put(sitemapName, response == null ? null : decodeSitemap(sitemapName, response));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all items, referenced by the specific *.sitemap file, as a list.
      *
      * @param aSitemapname -- name of the specific *.sitemap file
+     * @param response -- the data of the sitemap fetched from the remote node
      * @return list of remote items
      * @throws IOException
      */
-    private @Nullable List<OpenHabInterconnectBindingRemoteItem> getItemsFromSitemap(String aSitemapname)
+    private @Nullable List<OpenHabInterconnectBindingRemoteItem> decodeSitemap(String aSitemapname, String response)
             throws IOException {
-        String response = connections.getSpecificSitemapDataFromNode(aSitemapname);
-        if (response == null) {
+        JsonObject homepage = decodeHomepage(response);
+        if (homepage == null) {
             return null;
         }
+        List<OpenHabInterconnectBindingRemoteItem> items = decodeSitemapItems(aSitemapname, homepage,
+                response.length());
+        return subscribeSitemap(aSitemapname, homepage, items);
+    }
+
+    /**
+     * Returns the homepage of the sitemap data fetched from the remote node.
+     *
+     * @param response -- the data of the sitemap
+     * @return the homepage or null, if the data is no sitemap
+     */
+    private @Nullable JsonObject decodeHomepage(String response) {
         JsonObject jObj = parser.parse(response).getAsJsonObject();
         if (!jObj.isJsonObject()) {
+            flightRecorder.beginPhase(Phase.DECODE);
+            flightRecorder.endPhase(Phase.DECODE, 0, response.length(), false);
             return null;
         }
-        JsonElement homepage = jObj.get(InterconnectBindingConstants.OPENHAB_SITEMAP_HOMEPAGE);
-        JsonArray sitemapWidgets = homepage.getAsJsonObject()
-                .getAsJsonArray(InterconnectBindingConstants.OPENHAB_WIDGETS);
+        return jObj.get(InterconnectBindingConstants.OPENHAB_SITEMAP_HOMEPAGE).getAsJsonObject();
+    }
+
+    /**
+     * Returns all items on the pages of a sitemap.
+     *
+     * @param aSitemapname -- name of the sitemap
+     * @param homepage -- JSON data of the homepage
+     * @param responseLength -- length of the data fetched
+     * @return list of remote items
+     */
+    private List<OpenHabInterconnectBindingRemoteItem> decodeSitemapItems(String aSitemapname, JsonObject homepage,
+            int responseLength) {
+        flightRecorder.beginPhase(Phase.DECODE);
+        long decodeStart = System.nanoTime();
+        JsonArray sitemapWidgets = homepage.getAsJsonArray(InterconnectBindingConstants.OPENHAB_WIDGETS);
         List<OpenHabInterconnectBindingRemoteItem> items = new ArrayList<>();
         int itemCount = 0;
         for (JsonElement widget : sitemapWidgets) {
             itemCount += getItemsFromWidget(items, widget.getAsJsonObject());
         }
-        logger.info("===================");
-        logger.info("=== Items collected from sitemap [" + aSitemapname + "]:" + itemCount + " ===");
-        items.stream().forEach(item -> logger.info("=== Found [" + item.asItemString(this.localThingID) + "] ==="));
-        logger.info("===================");
+        flightRecorder.endPhase(Phase.DECODE, itemCount, responseLength, true);
+        recordStage(InterconnectPipeline.Stage.DECODE, decodeStart);
+        items.removeIf(item -> !markRelay(item));
+        // the items are shown on the page of the sitemap
+        items.forEach(item -> item.setPage(aSitemapname));
+        logger.debug("Items collected from sitemap [{}]: {}", aSitemapname, itemCount);
+        if (logger.isTraceEnabled()) {
+            // rendering the item lines is expensive
+            items.forEach(item -> logger.trace("Found [{}]", item.asItemString(this.localThingID)));
+        }
+        if (trace.isActive()) {
+            trace.add(itemCount + " items collected from sitemap [" + aSitemapname + "]");
+        }
         return items;
     }
 
+    /**
+     * Subscribes to the events of all pages of the sitemap, so the sitemap does not have to be fetched again until
+     * its structure changes. Traces are recorded and replayed from full fetches only.
+     *
+     * The pages are taken from the fetched sitemap, but states changed while the event streams are opened are not in
+     * this data. So the sitemap is fetched once more after the streams are up, and this data is the baseline, which the
+     * events are applied to.
+     *
+     * @param sitemapName -- name of the sitemap
+     * @param homepage -- JSON data of the homepage
+     * @param items -- the items of the sitemap
+     * @return the items of the baseline, or the given items if the sitemap is polled
+     * @throws IOException if the baseline can't be fetched
+     */
+    private List<OpenHabInterconnectBindingRemoteItem> subscribeSitemap(String sitemapName, JsonObject homepage,
+            List<OpenHabInterconnectBindingRemoteItem> items) throws IOException {
+        if (traceRecorder != null || traceReplayer != null) {
+            return items;
+        }
+        Long retry = sitemapSubscriptionRetries.get(sitemapName);
+        if (retry != null && System.currentTimeMillis() < retry) {
+            return items;
+        }
+        InterconnectSitemapSubscription subscription;
+        try {
+            subscription = InterconnectSitemapSubscription.open(connections, sitemapEventThreads, sitemapName,
+                    homepage, items);
+        } catch (IOException e) {
+            logger.debug("Unable to subscribe to events of sitemap [{}], it is polled: {}", sitemapName,
+                    e.getMessage());
+            sitemapSubscriptionRetries.put(sitemapName, System.currentTimeMillis() + SITEMAP_SUBSCRIPTION_RETRY);
+            return items;
+        }
+        if (subscription == null) {
+            logger.debug("Sitemap [{}] has too many pages for events, it is polled.", sitemapName);
+            sitemapSubscriptionRetries.put(sitemapName, System.currentTimeMillis() + SITEMAP_SUBSCRIPTION_RETRY);
+            return items;
+        }
+        List<OpenHabInterconnectBindingRemoteItem> baseline;
+        try {
+            String response = fetch(() -> connections.getSpecificSitemapDataFromNode(sitemapName));
+            JsonObject baselineHomepage = response == null ? null : decodeHomepage(response);
+            if (baselineHomepage == null) {
+                subscription.close();
+                return items;
+            }
+            baseline = decodeSitemapItems(sitemapName, baselineHomepage, response.length());
+            if (!subscription.setBaseline(baselineHomepage, baseline)) {
+                // the pages have changed in the meantime, the next cycle subscribes to the new pages
+                logger.debug("Pages of sitemap [{}] changed while subscribing.", sitemapName);
+                subscription.close();
+                return baseline;
+            }
+        } catch (IOException | RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        sitemapSubscriptionRetries.remove(sitemapName);
+        InterconnectSitemapSubscription previous = sitemapSubscriptions.put(sitemapName, subscription);
+        if (previous != null) {
+            previous.close();
+        }
+        // events received since the streams have been opened are newer than the baseline
+        return subscription.getItems();
+    }
+
+    /**
+     * Closes the subscriptions to the events of all sitemaps.
+     */
+    private void closeSitemapSubscriptions() {
+        for (InterconnectSitemapSubscription subscription : sitemapSubscriptions.values()) {
+            subscription.close();
+        }
+        sitemapSubscriptions.clear();
+        sitemapSubscriptionRetries.clear();
+    }
+
     /**
      * Simply adds all remote items as local items in the item registry of this openhab2 instance.
      *
+     * @param items -- working copy of the local items, which will be published after the reconciliation
      * @param remoteItems
      */
-    private void addRemoteItemsToLocalNode(List<OpenHabInterconnectBindingRemoteItem> remoteItems) {
-        try (Writer writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(this.itemsFile, false), "UTF-8"))) {
-
-            for (OpenHabInterconnectBindingRemoteItem remoteItem : remoteItems) {
-                itemsLocal.put(remoteItem.getName(), remoteItem);
-                String uid = thing.getUID().getAsString();
-                writer.write(remoteItem.asItemString(uid));
-                logger.info(remoteItem.getName() + " : " + remoteItem.asItemString(uid));
-                logger.info("-----------");
+    private void addRemoteItemsToLocalNode(Map<String, OpenHabInterconnectBindingRemoteItem> items,
+            List<OpenHabInterconnectBindingRemoteItem> remoteItems) {
+        flightRecorder.beginPhase(Phase.FILE_WRITE);
+        StringBuilder content = new StringBuilder();
+        String uid = thing.getUID().getAsString();
+        for (OpenHabInterconnectBindingRemoteItem remoteItem : remoteItems) {
+            items.put(remoteItem.getName(), remoteItem);
+            changeFeed.record(InterconnectChangeFeed.Kind.ADDED, remoteItem.getName(), remoteItem.getState());
+            content.append(remoteItem.asItemString(uid));
+        }
+        logger.debug("{} remote items added to the local node.", remoteItems.size());
+        if (trace.isActive()) {
+            trace.add(remoteItems.size() + " remote items added to the local node");
+        }
+        try {
+            // an unchanged file, e.g. after a restart of the binding, is not written again, so the item registry
+            // keeps the items
+            if (!OpenHabInterconnectBindingFileUtil.hasContent(this.itemsFile, content.toString())) {
+                try (Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(new FileOutputStream(this.itemsFile, false), "UTF-8"))) {
+                    writer.write(content.toString());
+                }
             }
-            updateSiteMap();
+            flightRecorder.endPhase(Phase.FILE_WRITE, remoteItems.size(), 0, true);
+            sitemapWriteNeeded = true;
 
         } catch (Exception e) {
             logger.error("Error while writing items tp item file:", e);
@@ -466,10 +2045,21 @@ public class InterconnectHandler extends BaseThingHandler {
      * Adds, removes or updates the local representations of the remote items according to the remote node. The
      * generated *.items and *.sitemap files will be updated as well if necessary.
      *
+     * State changes are handled before structural changes. If the deadline passes, the remaining changes are returned
+     * and the removal of deleted items is left to the cycle, which completes the changes.
+     *
+     * @param items -- working copy of the local items, which will be published after the reconciliation
      * @param remoteItems
+     * @param changedNames -- names of the items, which differ between the local and the remote node
+     * @param shard -- the synchronized shard, only its items are removed if they are missing on the remote node
+     * @param inboundSequence -- sequence number taken before the remote items have been requested
+     * @param deadline -- time by {@link System#nanoTime()}, after which no further change is started, or null
+     * @return names of the changed items, which have not been handled before the deadline
      * @throws Exception
      */
-    private void computeRemoteData(List<OpenHabInterconnectBindingRemoteItem> remoteItems) throws Exception {
+    private Set<String> computeRemoteData(Map<String, OpenHabInterconnectBindingRemoteItem> items,
+            List<OpenHabInterconnectBindingRemoteItem> remoteItems, Set<String> changedNames, int shard,
+            long inboundSequence, @Nullable Long deadline) throws Exception {
         if (hasDuplicate(remoteItems)) {
             logger.warn("=== Synchronizing of local node aborted! ===");
             throw new Exception("Duplicate Items detected");
@@ -480,109 +2070,284 @@ public class InterconnectHandler extends BaseThingHandler {
         // applies if the tag of an item has changed or an item with the same item name, but with another type has been
         // added, while the old item with the same name has been deleted
         List<OpenHabInterconnectBindingRemoteItem> changedItems = new ArrayList<>();
+        // stores items that have been added on the remote node
+        List<OpenHabInterconnectBindingRemoteItem> addedItems = new ArrayList<>();
+        // changed items with a new configuration or added items, handled after all state changes
+        List<OpenHabInterconnectBindingRemoteItem> structuralItems = new ArrayList<>();
+        Set<String> remaining = new LinkedHashSet<>();
 
+        usedKeys.clear();
         try (Writer writer = new BufferedWriter(
                 new OutputStreamWriter(new FileOutputStream(this.itemsFile, true), "UTF-8"))) {
             for (OpenHabInterconnectBindingRemoteItem remoteItem : remoteItems) {
-                if (itemsLocal.containsKey(remoteItem.getName())) {
-                    localItem = itemsLocal.get(remoteItem.getName());
-                    // check if item has the same type and same label
-                    if (localItem.hasSameConfig(remoteItem)) {
-                        // check if local and remote items have equal state
-                        if (!localItem.getState().contentEquals(remoteItem.getState())) {
-                            localItem.setState(remoteItem.getState());
-                            itemsLocal.put(localItem.getName(), localItem);
-                        }
-                        // TODO or just always put remote item in map ??? same functionality but would trigger observers
-                        // even when we do not have any changes in remote item => worse performance ???
-                        // itemsLocal.put(localItem.getName(), remoteItem);
-
-                        usedKeys.add(remoteItem.getName());
-                    } else {
-                        changedItems.add(remoteItem);
+                // items, which are part of an unchanged subtree or not handled before the deadline, are kept
+                usedKeys.add(remoteItem.getName());
+                if (!changedNames.contains(remoteItem.getName())) {
+                    continue;
+                }
+                localItem = items.get(remoteItem.getName());
+                if (localItem == null || !localItem.hasSameConfig(remoteItem)) {
+                    structuralItems.add(remoteItem);
+                    continue;
+                }
+                if (isPast(deadline)) {
+                    remaining.add(remoteItem.getName());
+                    continue;
+                }
+                // check if local and remote items have equal state
+                // published items are immutable, so the remote item replaces the local one
+                String queuedValue = outbox == null ? null : outbox.getValue(remoteItem.getName());
+                if (queuedValue != null
+                        || !stateOrigin.acceptInbound(remoteItem.getName(), remoteItem.getState(), inboundSequence)) {
+                    // stale state of an item with a pending or queued command, keep the value of the command
+                    String pendingValue = queuedValue != null ? queuedValue
+                            : stateOrigin.getPendingValue(remoteItem.getName());
+                    if (pendingValue != null && !localItem.getState().contentEquals(pendingValue)) {
+                        items.put(localItem.getName(), localItem.withState(pendingValue));
                     }
-
+                } else if (!localItem.getState().contentEquals(remoteItem.getState())) {
+                    items.put(localItem.getName(), remoteItem);
+                    changeFeed.record(InterconnectChangeFeed.Kind.STATE, remoteItem.getName(), remoteItem.getState());
+                    traceItem("State changed", remoteItem);
+                }
+            }
+            for (OpenHabInterconnectBindingRemoteItem remoteItem : structuralItems) {
+                if (isPast(deadline)) {
+                    remaining.add(remoteItem.getName());
+                    continue;
+                }
+                if (items.containsKey(remoteItem.getName())) {
+                    // removed from the file with the deleted items and appended again
+                    usedKeys.remove(remoteItem.getName());
+                    changedItems.add(remoteItem);
                 } else {
-                    logger.info("---New Item added---");
-                    itemsLocal.put(remoteItem.getName(), remoteItem);
-                    // create item in items file
-                    writer.write(remoteItem.asItemString(thing.getUID().getAsString()));
+                    items.put(remoteItem.getName(), remoteItem);
+                    changeFeed.record(InterconnectChangeFeed.Kind.ADDED, remoteItem.getName(), remoteItem.getState());
+                    addedItems.add(remoteItem);
                     sitemapUpdateNeeded = true;
-                    usedKeys.add(remoteItem.getName());
+                    traceItem("Item added", remoteItem);
                 }
-                // usedKeys.add(remoteItem.getName());
-                logger.info(remoteItem.getLabel() + ": " + remoteItem.getType() + " = " + remoteItem.getState());
-                logger.info("-----------");
             }
-            // remove deleted items from items file
-            removeDeletedItems();
+            flightRecorder.beginPhase(Phase.FILE_WRITE);
+            // create new items in items file
+            for (OpenHabInterconnectBindingRemoteItem remoteItem : addedItems) {
+                writer.write(remoteItem.asItemString(thing.getUID().getAsString()));
+            }
+            // remove deleted items from items file, once all changes of the cycle have been handled
+            Set<String> rewrittenNames = new HashSet<>();
+            changedItems.forEach(item -> rewrittenNames.add(item.getName()));
+            int removedItems = remaining.isEmpty() ? removeDeletedItems(items, shard)
+                    : removeItems(items, entry -> rewrittenNames.contains(entry.getKey()));
+            // the pages of removed items have to be rendered again
+            sitemapUpdateNeeded |= removedItems > 0;
             // append changed items
             for (OpenHabInterconnectBindingRemoteItem remoteItem : changedItems) {
-                itemsLocal.put(remoteItem.getName(), remoteItem);
+                items.put(remoteItem.getName(), remoteItem);
+                changeFeed.record(InterconnectChangeFeed.Kind.UPDATED, remoteItem.getName(), remoteItem.getState());
                 writer.write(remoteItem.asItemString(thing.getUID().getAsString()));
                 sitemapUpdateNeeded = true;
             }
+            writer.flush();
+            flightRecorder.endPhase(Phase.FILE_WRITE, addedItems.size() + removedItems + changedItems.size(), 0,
+                    true);
             // add changed items to items file
-            // expensive task only needed if new item has been added to items file
-            if (sitemapUpdateNeeded) {
-                updateSiteMap();
-            }
+            // expensive task only needed if new item has been added to items file, the sitemap files are rendered
+            // by the pipeline after the items have been published
+            sitemapWriteNeeded |= sitemapUpdateNeeded;
 
         } catch (Exception e) {
             logger.error("Error while writing items to item file:", e);
+        } finally {
+            usedKeys.clear();
         }
-        usedKeys.clear();
-        logger.info("===================");
+        return remaining;
+    }
+
+    /**
+     * Logs and traces a change of a remote item.
+     *
+     * @param message -- kind of the change
+     * @param remoteItem -- the changed item
+     */
+    private void traceItem(String message, OpenHabInterconnectBindingRemoteItem remoteItem) {
+        logger.debug("{} [{}]: {} = {}", message, remoteItem.getName(), remoteItem.getType(), remoteItem.getState());
+        if (trace.isActive()) {
+            trace.add(message + " [" + remoteItem.getName() + "]: " + remoteItem.getType() + " = "
+                    + remoteItem.getState());
+        }
+    }
+
+    private static boolean isPast(@Nullable Long deadline) {
+        return deadline != null && System.nanoTime() - deadline > 0;
     }
 
     /**
      * Synchronizes the item states in openhab2's item registry with the remote item states.
      *
+     * @param changedItems -- names of the items to synchronize or null for all items
      * @return number of items synchronized
      */
-    private int synchronizeLocalStates() {
-        Set<String> keys = this.itemsLocal.keySet();
+    private int synchronizeLocalStates(@Nullable Set<String> changedItems) {
+        Map<String, OpenHabInterconnectBindingRemoteItem> items = this.itemsLocal.snapshot();
+        expirePendingStates();
         int i = 0;
-        if (keys.isEmpty()) {
+        if (items.isEmpty()) {
             return i;
         }
-        for (String key : keys) {
-            Item item;
-            // we check if the file observer has already added the item to the item registry
-            int maxWait = 0;
-            while ((item = this.itemRegistry.get(key)) == null) {
-                try {
-                    if (maxWait++ >= 10) {
-                        logger.error("Local item was not added to registry in time.");
-                        return i;
-                    }
-                    logger.info("=== Waiting for file observer to add the item to registry... ===");
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    logger.warn("???", e);
-                }
+        Long deadline = System.currentTimeMillis() + PENDING_STATE_TIMEOUT;
+        for (String key : changedItems == null ? items.keySet() : changedItems) {
+            OpenHabInterconnectBindingRemoteItem remoteItem = items.get(key);
+            if (remoteItem == null) {
+                // removed item
+                continue;
             }
-            if (item instanceof GenericItem) {
-                GenericItem gItem = (GenericItem) item;
-                String localState = this.itemsLocal.get(key).getState();
-                if (localState.contentEquals("NULL")) {
-                    gItem.setState(UnDefType.NULL.as(State.class));
-                } else {
-                    gItem.setState(createState(item, this.itemsLocal.get(key).getState()));
+            Item item = this.itemRegistry.get(key);
+            if (item == null) {
+                // the file observer has not added the item to the item registry yet, the state will be applied as
+                // soon as the registry reports the item
+                pendingStates.putIfAbsent(key, deadline);
+                // the item might have been added in the meantime
+                if ((item = this.itemRegistry.get(key)) == null || pendingStates.remove(key) == null) {
+                    continue;
                 }
-                // this.itemRegistry.update(item);
+            } else {
+                pendingStates.remove(key);
+            }
+            if (applyState(item, remoteItem.getState())) {
                 ++i;
             }
-
         }
         return i;
     }
 
+    /**
+     * Sets the state of the local item.
+     *
+     * @param item -- item from the item registry
+     * @param state -- state of the remote item
+     * @return true if the state has been set
+     */
+    private boolean applyState(Item item, String state) {
+        if (item instanceof GenericItem) {
+            GenericItem gItem = (GenericItem) item;
+            if (!InterconnectStateCodec.matches(item.getState(), state)) {
+                gItem.setState(createState(item, state));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the state of the remote item, if the local item has been waiting for the item registry.
+     *
+     * @param item -- item reported by the item registry
+     */
+    private void applyPendingState(Item item) {
+        Long deadline = pendingStates.remove(item.getName());
+        if (deadline == null) {
+            return;
+        }
+        if (deadline < System.currentTimeMillis()) {
+            logger.warn("Local item [{}] was not added to registry in time.", item.getName());
+            return;
+        }
+        OpenHabInterconnectBindingRemoteItem remoteItem = itemsLocal.snapshot().get(item.getName());
+        if (remoteItem != null) {
+            applyState(item, remoteItem.getState());
+        }
+    }
+
+    /**
+     * Removes the pending states of items, which have not been added to the item registry in time.
+     */
+    private void expirePendingStates() {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        Iterator<Map.Entry<String, Long>> it = pendingStates.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() < now) {
+                it.remove();
+                ++expired;
+            }
+        }
+        if (expired > 0) {
+            logger.warn("{} local items were not added to registry in time.", expired);
+        }
+    }
+
+    @Override
+    public void added(Item element) {
+        applyPendingState(element);
+    }
+
+    @Override
+    public void removed(Item element) {
+        // nothing to do, removed items are handled by the synchronization
+    }
+
+    @Override
+    public void updated(Item oldElement, Item element) {
+        applyPendingState(element);
+    }
+
+    @Override
+    public void allItemsChanged(Collection<String> oldItemNames) {
+        for (String key : pendingStates.keySet()) {
+            Item item = itemRegistry.get(key);
+            if (item != null) {
+                applyPendingState(item);
+            }
+        }
+    }
+
     @Override
     public void dispose() {
-        if (refreshJob != null) {
-            refreshJob.cancel(true);
+        cancelJobs();
+        itemRegistry.removeRegistryChangeListener(this);
+        pendingStates.clear();
+        stateOrigin.clear();
+        connections.setTraceRecorder(null);
+        connections.setTraceReplayer(null);
+        releaseRateLimiter();
+        closeMirror();
+        closeItemEvents();
+        closeSitemapSubscriptions();
+        closePipeline();
+        if (this.traceRecorder != null) {
+            this.traceRecorder.close();
+            this.traceRecorder = null;
+        }
+        if (this.traceReplayer != null) {
+            this.traceReplayer.stop();
+            this.traceReplayer = null;
+        }
+        // the generated files and the outbox are kept, so the items and commands survive a restart of the binding
+        pageContents.clear();
+        if (outboxJob != null) {
+            outboxJob.cancel(false);
+            outboxJob = null;
+        }
+        outboxFlushing.set(false);
+        this.outbox = null;
+    }
+
+    @Override
+    public void handleRemoval() {
+        cancelJobs();
+        // a running sitemap write must not recreate the files
+        closePipeline();
+        deleteGeneratedFiles();
+        if (config != null && getOutboxFile().delete()) {
+            logger.info("outbox File deleted successully");
         }
+        super.handleRemoval();
+    }
+
+    /**
+     * Deletes the generated *.items and *.sitemap files.
+     */
+    private void deleteGeneratedFiles() {
         if (this.itemsFile != null) {
             // delete Files
             if (this.itemsFile.delete()) {
@@ -597,86 +2362,305 @@ public class InterconnectHandler extends BaseThingHandler {
             } else {
                 logger.warn("sitemap File deletion failed");
             }
+            deletePageFiles();
         }
+    }
 
+    /**
+     * Deletes the generated sitemap files of the pages, including pages of former runs of the binding.
+     */
+    private void deletePageFiles() {
+        pageContents.keySet().removeIf(page -> !page.isEmpty());
+        File[] pageFiles = this.sitemapFile.getParentFile()
+                .listFiles((dir, name) -> name.startsWith(localThingID + "_") && name.endsWith(sitemapsFileEnding));
+        if (pageFiles == null) {
+            return;
+        }
+        for (File pageFile : pageFiles) {
+            if (!pageFile.delete()) {
+                logger.warn("sitemap File [{}] deletion failed", pageFile.getName());
+            }
+        }
     }
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        synchronized (lock) {
-            if (!command.toString().contentEquals("REFRESH")) {
-                synchronizeRemote(command);
-                synchronizeLocaleNode();
-            }
+        if (!(command instanceof RefreshType)) {
+            // the command is routed against the current snapshot and does not wait for a running synchronization
+            routeCommand(channelUID, command, 1);
         }
     }
 
     /**
-     * Tries to set the state of the remote item according to the command.
+     * Sends the command to the remote item, whose local state has changed. If no changed item is found, the lookup is
+     * repeated on the scheduler, so the caller does not wait for the item registry.
      *
-     * Known issue:
-     * This method might fail, if the user is changing the state of the same item too fast.
-     * We assume, that in the moment this method has been called, the item registry of openhab2 already has the new item
-     * state updated. But this is not always the case. If this happens this method will throw an exception.
-     *
-     * @param command
-     * @return status code
-     */
-    private String synchronizeRemote(Command command) {
-        // compare the states of all items inside our localItems map with the same items stored inside the item
-        // registry.
-        for (int tryInterations = 0; tryInterations < 3; tryInterations++) {
-            Set<String> keys = itemsLocal.keySet();
-            for (String key : keys) {
-                Item item = this.itemRegistry.get(key);
-
-                OpenHabInterconnectBindingRemoteItem it = this.itemsLocal.get(key);
-                String st1 = item.getState().toString();
-                String st2 = it.getState();
-
-                logger.info("key: " + key);
-                logger.info("Itemname: " + item.getName());
-                logger.info("zustand 1: " + st1);
-                logger.info("zustand 2: " + st2);
-                // we found an remote item in the item registry with the same item name, which has a different state
-                // ergo we know that the user has changed the items state via the GUI
-                if (!st1.contentEquals(st2)) {
-                    it.setState(st2);
-                    this.itemsLocal.put(key, it);
-                    try {
-                        return connections.setItemValueRemoteNode(it.getRemoteName(), st1);
-                    } catch (IOException e) {
-                        logger.error(e.getMessage(), e);
-                    }
+     * @param channelUID -- the channel, which has received the command
+     * @param command -- the command
+     * @param lookup -- number of the lookup, starting with 1
+     */
+    private void routeCommand(ChannelUID channelUID, Command command, int lookup) {
+        String key = synchronizeRemote(channelUID, command);
+        if (key != null) {
+            // only the changed item is confirmed, the full synchronization stays on its schedule
+            if (!breaker.isOpen()) {
+                refreshRemoteItem(key);
+            }
+        } else if (lookup < COMMAND_LOOKUPS) {
+            logger.debug("Changed item not found in lookup {}.", lookup);
+            scheduler.schedule(() -> routeCommand(channelUID, command, lookup + 1), COMMAND_LOOKUP_DELAY,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            logger.warn("A new state change {} has been recognized, but no item could be found to apply the state to.",
+                    command);
+        }
+    }
 
+    /**
+     * Reads the state of a single item from the remote node and updates the local item and the item registry.
+     * Used to confirm commands and for the hot lane. If the configuration of the item has changed on the remote node,
+     * a full synchronization is started.
+     *
+     * @param key -- local name of the item
+     */
+    private void refreshRemoteItem(String key) {
+        OpenHabInterconnectBindingRemoteItem localItem = itemsLocal.snapshot().get(key);
+        if (localItem == null) {
+            return;
+        }
+        try {
+            long inboundSequence = stateOrigin.nextSequence();
+            String response = connections.getSpecificItemDataFromNode(localItem.getRemoteName());
+            if (response == null) {
+                return;
+            }
+            OpenHabInterconnectBindingRemoteItem remoteItem = createRemoteItem(parser.parse(response));
+            remoteItem.setVersion(inboundSequence);
+            remoteItem.setShard(localItem.getShard());
+            remoteItem.setPage(localItem.getPage());
+            if (!localItem.hasSameConfig(remoteItem)) {
+                logger.info("Configuration of remote item [{}] has changed.", localItem.getRemoteName());
+                scheduleSynchronization();
+                return;
+            }
+            InterconnectOutbox outbox = this.outbox;
+            if ((outbox == null || outbox.getValue(key) == null)
+                    && stateOrigin.acceptInbound(key, remoteItem.getState(), inboundSequence)
+                    && !localItem.getState().contentEquals(remoteItem.getState()) && itemsLocal.update(remoteItem)) {
+                changeFeed.record(InterconnectChangeFeed.Kind.STATE, key, remoteItem.getState());
+                Item item = itemRegistry.get(key);
+                if (item != null) {
+                    applyState(item, remoteItem.getState());
                 }
             }
+        } catch (IOException e) {
+            logger.warn("Unable to refresh state of remote item [{}]: {}", localItem.getRemoteName(), e.getMessage());
+        } catch (JsonParseException | IllegalStateException e) {
+            logger.warn("Invalid data for remote item [{}]: {}", localItem.getRemoteName(), e.getMessage());
+        }
+    }
 
-            logger.warn("interation " + String.valueOf(tryInterations));
+    /**
+     * Starts sending the commands of the outbox, unless they are already being sent.
+     */
+    private void scheduleOutboxFlush() {
+        if (outboxFlushing.compareAndSet(false, true)) {
+            outboxJob = scheduler.schedule(this::flushOutboxBatch, 0, TimeUnit.MILLISECONDS);
+        }
+    }
 
+    /**
+     * Sends the next batch of commands from the outbox and schedules the following batch after a pause. Sending
+     * stops as soon as a command fails.
+     */
+    private void flushOutboxBatch() {
+        InterconnectOutbox outbox = this.outbox;
+        if (outbox == null || breaker.isOpen()) {
+            outboxFlushing.set(false);
+            return;
+        }
+        List<InterconnectOutbox.Entry> batch = outbox.peek(OUTBOX_BATCH_SIZE);
+        for (InterconnectOutbox.Entry entry : batch) {
+            InterconnectFlightRecorder commandRecorder = InterconnectFlightRecorder.beginCommand(localThingID,
+                    entry.getRemoteName());
+            long sequence = stateOrigin.outbound(entry.getName(), entry.getValue());
             try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                connections.setItemValueRemoteNode(entry.getRemoteName(), entry.getValue());
+                commandRecorder.endCommand(entry.getValue().length(), true);
+                outbox.remove(entry);
+            } catch (IOException e) {
+                stateOrigin.outboundFailed(entry.getName(), sequence);
+                commandRecorder.endCommand(entry.getValue().length(), false);
+                if (!(e instanceof LimitExceededException)) {
+                    breaker.trip();
+                }
+                logger.warn("Unable to send command of outbox to remote item [{}]: {}", entry.getRemoteName(),
+                        e.getMessage());
+                outboxFlushing.set(false);
+                return;
+            }
+        }
+        if (outbox.isEmpty()) {
+            logger.info("All commands of the outbox have been sent to remote node [{}].", config.nodeIPAddress);
+            outboxFlushing.set(false);
+            return;
+        }
+        outboxJob = scheduler.schedule(this::flushOutboxBatch, OUTBOX_BATCH_PAUSE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Continues the shards, whose changes have not been handled within the sync budget, after a short pause, in which
+     * commands and other shards can take the lock.
+     */
+    private void scheduleResume() {
+        ScheduledFuture<?> job = resumeJob;
+        if (job != null && !job.isDone()) {
+            return;
+        }
+        resumeJob = scheduler.schedule(() -> {
+            for (Integer shard : new ArrayList<>(syncCursors.keySet())) {
+                synchronized (lock) {
+                    if (shard >= shards.count()) {
+                        // left over from before the number of shards has changed
+                        syncCursors.remove(shard);
+                    } else if (syncCursors.containsKey(shard)) {
+                        synchronizeLocaleNode(shard);
+                    }
+                }
+            }
+        }, SYNC_RESUME_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a full synchronization without waiting for it.
+     */
+    private void scheduleSynchronization() {
+        if (!synchronizationScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.execute(() -> {
+            synchronized (lock) {
+                synchronizationScheduled.set(false);
+                synchronizeLocaleNode();
+            }
+        });
+    }
+
+    /**
+     * Tries to set the state of the remote item according to the command.
+     *
+     * Known issue:
+     * This method might fail, if the user is changing the state of the same item too fast.
+     * We assume, that in the moment this method has been called, the item registry of openhab2 already has the new item
+     * state updated. But this is not always the case. If this happens this method returns null and the caller looks
+     * again later.
+     *
+     * @param channelUID -- the channel, which has received the command
+     * @param command -- the command, which is sent to the remote item
+     * @return local name of the item, whose state has been sent to the remote node, or null if no item has changed
+     */
+    private @Nullable String synchronizeRemote(ChannelUID channelUID, Command command) {
+        String value = InterconnectStateCodec.encode(command);
+        // compare the states of the items of the channel inside our localItems map with the same items stored inside
+        // the item registry.
+        for (OpenHabInterconnectBindingRemoteItem it : itemsLocal.snapshot().values()) {
+            if (!it.getChannelId().equals(channelUID.getId())) {
+                continue;
+            }
+            String key = it.getName();
+            Item item = this.itemRegistry.get(key);
+            if (item == null) {
+                // the file observer has not added the item to the item registry yet
+                continue;
             }
 
+            String st1 = InterconnectStateCodec.encode(item.getState());
+            String st2 = it.getState();
+            // we found an remote item in the item registry with the same item name, which has a different state
+            // ergo we know that the user has changed the items state via the GUI
+            if (!st1.contentEquals(st2) && !stateOrigin.isPending(key, st1)) {
+                logger.debug("State of item [{}] changed locally from [{}] to [{}].", key, st2, st1);
+                if (trace.isActive()) {
+                    trace.add("Command " + value + " for item [" + key + "]: " + st2 + " -> " + st1);
+                }
+                InterconnectOutbox outbox = this.outbox;
+                if (outbox != null && breaker.isOpen()) {
+                    // the remote node is unreachable, the command is sent as soon as it is back
+                    queueCommand(outbox, it, value);
+                    return key;
+                }
+                InterconnectFlightRecorder commandRecorder = InterconnectFlightRecorder.beginCommand(localThingID,
+                        it.getRemoteName());
+                long sequence = stateOrigin.outbound(key, st1);
+                try {
+                    connections.setItemValueRemoteNode(it.getRemoteName(), value);
+                    commandRecorder.endCommand(value.length(), true);
+                    // the local item takes the sent state, so later polls don't report the change again
+                    OpenHabInterconnectBindingRemoteItem sentItem = it.withState(st1);
+                    sentItem.setVersion(sequence);
+                    itemsLocal.update(sentItem);
+                    return key;
+                } catch (IOException e) {
+                    stateOrigin.outboundFailed(key, sequence);
+                    commandRecorder.endCommand(value.length(), false);
+                    logger.warn("Unable to send command to remote item [{}]: {}", it.getRemoteName(), e.getMessage());
+                    if (outbox != null) {
+                        if (!(e instanceof LimitExceededException) && breaker.trip()) {
+                            logger.warn("Remote node [{}] is unreachable, commands are stored in the outbox.",
+                                    config.nodeIPAddress);
+                        }
+                        queueCommand(outbox, it, value);
+                    }
+                    return key;
+                }
+            }
         }
-        throw new IllegalStateException("A new state change " + command.toString()
-                + " has been recognized, but no item could be found to apply the state to.");
+        return null;
+    }
 
+    /**
+     * Stores a command in the outbox. The local item keeps the value of the command until it has been sent.
+     *
+     * @param outbox -- the outbox
+     * @param item -- the local item
+     * @param value -- the value of the command
+     */
+    private void queueCommand(InterconnectOutbox outbox, OpenHabInterconnectBindingRemoteItem item, String value) {
+        outbox.add(item.getName(), item.getRemoteName(), value);
+        OpenHabInterconnectBindingRemoteItem queuedItem = item.withState(value);
+        queuedItem.setVersion(stateOrigin.nextSequence());
+        itemsLocal.update(queuedItem);
     }
 
     /**
      * Deletes all references of deleted items in the generated *.sitemap and *.items file.
+     *
+     * @param items -- working copy of the local items
+     * @param shard -- the synchronized shard, items of other shards are kept
+     * @return number of deleted items
+     */
+    private int removeDeletedItems(Map<String, OpenHabInterconnectBindingRemoteItem> items, int shard) {
+        return removeItems(items, entry -> entry.getValue().getShard() == shard && !usedKeys.contains(entry.getKey()));
+    }
+
+    /**
+     * Removes the items from the working copy of the local items and the generated *.items file.
+     *
+     * @param items -- working copy of the local items
+     * @param selection -- selects the items to remove
+     * @return number of removed items
      */
-    private void removeDeletedItems() {
-        Iterator<String> it = itemsLocal.keySet().iterator();
+    private int removeItems(Map<String, OpenHabInterconnectBindingRemoteItem> items,
+            Predicate<Map.Entry<String, OpenHabInterconnectBindingRemoteItem>> selection) {
+        Iterator<Map.Entry<String, OpenHabInterconnectBindingRemoteItem>> it = items.entrySet().iterator();
         List<String> keysToDeleteFromFile = new ArrayList<>();
         while (it.hasNext()) {
-            String key = it.next();
-            if (!usedKeys.contains(key)) {
-                itemsLocal.remove(key);
+            Map.Entry<String, OpenHabInterconnectBindingRemoteItem> entry = it.next();
+            String key = entry.getKey();
+            if (selection.test(entry)) {
+                it.remove();
                 keysToDeleteFromFile.add(key);
+                changeFeed.record(InterconnectChangeFeed.Kind.REMOVED, key, null);
 
             }
         }
@@ -684,12 +2668,12 @@ public class InterconnectHandler extends BaseThingHandler {
             try {
 
                 OpenHabInterconnectBindingFileUtil.deleteItemsFromFile(keysToDeleteFromFile, this.itemsFile);
-                OpenHabInterconnectBindingFileUtil.deleteItemsFromFile(keysToDeleteFromFile, this.sitemapFile);
             } catch (IOException e) {
                 logger.error("Error while deleting items from file:", e);
             }
 
         }
+        return keysToDeleteFromFile.size();
     }
 
     /**
@@ -745,24 +2729,29 @@ public class InterconnectHandler extends BaseThingHandler {
 
     // only for debug
     private void printRemoteItemsFromRegistry() {
-        Set<String> keys = this.itemsLocal.keySet();
+        Set<String> keys = this.itemsLocal.snapshot().keySet();
         if (keys.isEmpty()) {
             return;
         }
         for (String key : keys) {
             Item item = this.itemRegistry.get(key);
-            logger.info(item == null ? "Item with key " + key + " missing" : item.toString());
+            logger.trace(item == null ? "Item with key " + key + " missing" : item.toString());
         }
     }
 
     /**
-     * Generic creation of an item state according to the item and the item value.
+     * Generic creation of an item state according to the item and the item value. The codec of the item type is
+     * tried first, the accepted data types of the item are parsed only for types without a codec.
      *
      * @param item
      * @param value
      * @return the state for the item
      */
     protected @Nullable State createState(Item item, String value) {
+        State state = InterconnectStateCodec.decode(item.getType(), value);
+        if (state != null) {
+            return state;
+        }
         List<Class<? extends State>> cs = item.getAcceptedDataTypes();
         for (Class<?> c : cs) {
             try {
@@ -775,67 +2764,197 @@ public class InterconnectHandler extends BaseThingHandler {
         return null;
     }
 
+    /**
+     * Renders the sitemap files from the published items. The files are written by the pipeline, so the
+     * synchronization does not wait for them; requests made while a write is waiting are coalesced into it.
+     */
+    private void writeSitemaps() {
+        InterconnectPipeline pipeline = this.pipeline;
+        if (pipeline == null) {
+            renderSitemaps();
+        } else {
+            pipeline.write(this::renderSitemaps);
+        }
+    }
+
+    private void renderSitemaps() {
+        try {
+            updateSiteMap(itemsLocal.snapshot(), InterconnectFlightRecorder.beginStage(localThingID));
+        } catch (IOException e) {
+            logger.error("Unable to update sitemap file of interconnect binding!", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the pipeline. A running sitemap write is completed first.
+     */
+    private void closePipeline() {
+        InterconnectPipeline pipeline = this.pipeline;
+        if (pipeline != null) {
+            this.pipeline = null;
+            pipeline.close();
+        }
+    }
+
     /**
      * Rewrites the generated *.sitemap file with the updated items.
      *
+     * @param localItems -- the local items to write
+     * @param recorder -- recorder for the phase of the sitemap write
      * @return true if for success else false
      * @throws UnsupportedEncodingException
      * @throws FileNotFoundException
      * @throws IOException
      * @throws InterruptedException
      */
-    private boolean updateSiteMap()
+    private boolean updateSiteMap(Map<String, OpenHabInterconnectBindingRemoteItem> localItems,
+            InterconnectFlightRecorder recorder)
             throws UnsupportedEncodingException, FileNotFoundException, IOException, InterruptedException {
-        OpenHabInterconnectBindingRemoteItem[] items = this.itemsLocal.values()
-                .toArray(new OpenHabInterconnectBindingRemoteItem[0]);
-        if (items.length > 0) {
-            List<OpenHabInterconnectBindingRemoteItem> list = new ArrayList<>(Arrays.asList(items));
+        if (localItems.isEmpty()) {
+            return false;
+        }
+        // sort the items into the pages of the configured layout
+        Map<String, List<OpenHabInterconnectBindingRemoteItem>> pages = new TreeMap<>();
+        if (sitemapLayout == SitemapLayout.PAGES) {
+            // the main page is rewritten with its header only, if all items are on other pages
+            pages.put("", new ArrayList<>());
+        }
+        for (OpenHabInterconnectBindingRemoteItem item : localItems.values()) {
+            String page = sitemapLayout == SitemapLayout.PAGES ? item.getPage() : "";
+            pages.computeIfAbsent(page, p -> new ArrayList<>()).add(item);
+        }
+        recorder.beginPhase(Phase.SITEMAP_WRITE);
+        Map<String, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, List<OpenHabInterconnectBindingRemoteItem>> page : pages.entrySet()) {
+            String name = page.getKey();
+            List<OpenHabInterconnectBindingRemoteItem> list = page.getValue();
             Collections.sort(list);
-            writeItemsToSitemap(list);
-            return true;
+            String content = renderSitemap(getSitemapHeader(name), list);
+            if (!content.equals(pageContents.get(name))) {
+                changed.put(name, content);
+            }
         }
-        return false;
+        Set<String> writtenPages = writeSitemapFiles(changed);
+        int written = 0;
+        for (Map.Entry<String, String> page : changed.entrySet()) {
+            if (writtenPages.contains(page.getKey())) {
+                pageContents.put(page.getKey(), page.getValue());
+                written += pages.get(page.getKey()).size();
+            }
+        }
+        // delete the pages without items
+        Iterator<String> it = pageContents.keySet().iterator();
+        while (it.hasNext()) {
+            String page = it.next();
+            if (!pages.containsKey(page)) {
+                it.remove();
+                if (!page.isEmpty()) {
+                    Files.deleteIfExists(getSitemapFile(page).toPath());
+                }
+            }
+        }
+        recorder.endPhase(Phase.SITEMAP_WRITE, written, 0, writtenPages.size() == changed.size());
+        return true;
+    }
 
+    /**
+     * Returns the generated sitemap file of a page. The page without name is the main sitemap file.
+     *
+     * @param page -- name of the page
+     * @return the sitemap file
+     */
+    private File getSitemapFile(String page) {
+        if (page.isEmpty()) {
+            return this.sitemapFile;
+        }
+        return new File(this.sitemapFile.getParentFile(), getSitemapName(page) + sitemapsFileEnding);
     }
 
     /**
-     * Writes all remote items to the generated *.sitemap.
+     * Returns the header of the generated sitemap of a page.
      *
-     * @param items
-     * @return number of items written to file
-     * @throws UnsupportedEncodingException
-     * @throws FileNotFoundException
+     * @param page -- name of the page
+     * @return the sitemap header
+     */
+    private String getSitemapHeader(String page) {
+        if (page.isEmpty()) {
+            return this.sitemapStart;
+        }
+        String header = InterconnectBindingConstants.SITE_MAP_START;
+        header = header.replace("%" + InterconnectBindingConstants.SITE_MAP_ID_TOKEN + "%", getSitemapName(page));
+        return header.replace("%" + InterconnectBindingConstants.SITE_MAP_NAME_TOKEN + "%",
+                config.sitemapName + " " + page);
+    }
+
+    /**
+     * Returns the name of the generated sitemap of a page. Sitemap names may only contain letters, digits and "_".
+     *
+     * @param page -- name of the page
+     * @return the sitemap name
+     */
+    private String getSitemapName(String page) {
+        return this.localThingID + "_" + page.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    /**
+     * Renders the content of a generated sitemap file.
+     *
+     * @param sitemapStart -- header of the sitemap
+     * @param items -- sorted items of the sitemap
+     * @return the content of the file
+     */
+    private String renderSitemap(String sitemapStart, Iterable<OpenHabInterconnectBindingRemoteItem> items) {
+        StringBuilder content = new StringBuilder(sitemapStart);
+        for (OpenHabInterconnectBindingRemoteItem item : items) {
+            content.append(item.asSitemapString());
+        }
+        return content.append(InterconnectBindingConstants.SITE_MAP_END).toString();
+    }
+
+    /**
+     * Writes the rendered sitemap pages. The changed files are removed together and replaced after a single pause,
+     * so the model repository notices their removal without a pause per page.
+     *
+     * @param contents -- rendered content by the name of the page
+     * @return the names of the pages, whose files have the rendered content
      * @throws IOException
      * @throws InterruptedException
      */
-    private int writeItemsToSitemap(Iterable<OpenHabInterconnectBindingRemoteItem> items)
-            throws UnsupportedEncodingException, FileNotFoundException, IOException, InterruptedException {
-        Path sitemapPtah = Paths.get(this.sitemapFile.getPath());
-        Path tmpFile = Paths.get(sitemapPtah.getParent().toString() + "/" + this.localThingID + "sitemap.tmp");
-        File file = new File(tmpFile.toString());
-        if (!file.exists()) {
-            file.createNewFile();
-        }
-        int i = 0;
-        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), "UTF-8"))) {
-            writer.write(this.sitemapStart);
-            for (OpenHabInterconnectBindingRemoteItem item : items) {
-                writer.write(item.asSitemapString());
-                ++i;
+    private Set<String> writeSitemapFiles(Map<String, String> contents) throws IOException, InterruptedException {
+        Set<String> written = new HashSet<>();
+        Map<String, Path> tmpFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, String> page : contents.entrySet()) {
+            File sitemapFile = getSitemapFile(page.getKey());
+            if (OpenHabInterconnectBindingFileUtil.hasContent(sitemapFile, page.getValue())) {
+                // e.g. after a restart of the binding
+                written.add(page.getKey());
+                continue;
             }
-            writer.write(InterconnectBindingConstants.SITE_MAP_END);
-        } catch (IOException e) {
-            if (file.exists()) {
-                file.delete();
+            Path tmpFile = Paths.get(sitemapFile.getPath() + ".tmp");
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(tmpFile.toFile(), false), "UTF-8"))) {
+                writer.write(page.getValue());
+            } catch (IOException e) {
+                Files.deleteIfExists(tmpFile);
+                logger.error("Unable to update sitemap file of interconnect binding!", e);
+                continue;
             }
-            logger.error("Unable to update sitemap file of interconnect binding!", e);
-            return 0;
+            tmpFiles.put(page.getKey(), tmpFile);
         }
-        Files.delete(sitemapPtah);
-        Thread.sleep(1500);
-        Files.move(tmpFile, sitemapPtah, StandardCopyOption.REPLACE_EXISTING);
-        return i;
-
+        if (tmpFiles.isEmpty()) {
+            return written;
+        }
+        for (String page : tmpFiles.keySet()) {
+            Files.deleteIfExists(getSitemapFile(page).toPath());
+        }
+        Thread.sleep(sitemapSwapPause);
+        for (Map.Entry<String, Path> page : tmpFiles.entrySet()) {
+            Files.move(page.getValue(), getSitemapFile(page.getKey()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            written.add(page.getKey());
+        }
+        return written;
     }
 
     // private int writeItemsToSitemap(Iterable<OpenHabInterconnectBindingItem> items)
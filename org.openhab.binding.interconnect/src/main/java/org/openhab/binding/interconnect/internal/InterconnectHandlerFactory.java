@@ -16,10 +16,15 @@ import static org.openhab.binding.interconnect.internal.InterconnectBindingConst
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.events.ItemStateChangedEvent;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
@@ -30,15 +35,20 @@ import org.osgi.service.component.annotations.Reference;
 
 /**
  * The {@link InterconnectHandlerFactory} is responsible for creating things and thing
- * handlers.
+ * handlers. It also receives the state changes of the local items and hands them to the handlers, which push them
+ * to their remote nodes.
  *
  * @author Zim - Initial contribution
  */
-@Component(service = ThingHandlerFactory.class, immediate = true, configurationPid = "binding.interconnect")
+@Component(service = { ThingHandlerFactory.class,
+        EventSubscriber.class }, immediate = true, configurationPid = "binding.interconnect")
 @NonNullByDefault
-public class InterconnectHandlerFactory extends BaseThingHandlerFactory {
+public class InterconnectHandlerFactory extends BaseThingHandlerFactory implements EventSubscriber {
 
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Collections.singleton(THING_TYPE_SAMPLE);
+    private static final Set<String> SUBSCRIBED_EVENT_TYPES = Collections.singleton(ItemStateChangedEvent.TYPE);
+
+    private final Set<InterconnectHandler> handlers = new CopyOnWriteArraySet<>();
 
     @SuppressWarnings("null")
     private ItemRegistry itemRegistry;
@@ -53,12 +63,40 @@ public class InterconnectHandlerFactory extends BaseThingHandlerFactory {
         ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (THING_TYPE_SAMPLE.equals(thingTypeUID)) {
-            return new InterconnectHandler(thing, this.itemRegistry);
+            InterconnectHandler handler = new InterconnectHandler(thing, this.itemRegistry);
+            handlers.add(handler);
+            return handler;
         }
 
         return null;
     }
 
+    @Override
+    protected void removeHandler(ThingHandler thingHandler) {
+        handlers.remove(thingHandler);
+        super.removeHandler(thingHandler);
+    }
+
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        return SUBSCRIBED_EVENT_TYPES;
+    }
+
+    @Override
+    public @Nullable EventFilter getEventFilter() {
+        return null;
+    }
+
+    @Override
+    public void receive(Event event) {
+        if (event instanceof ItemStateChangedEvent) {
+            ItemStateChangedEvent changedEvent = (ItemStateChangedEvent) event;
+            for (InterconnectHandler handler : handlers) {
+                handler.localItemStateChanged(changedEvent.getItemName(), changedEvent.getItemState());
+            }
+        }
+    }
+
     @Reference
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link InterconnectItemEvents} receives the state changes of all items of the remote node by its item events,
+ * so a relay node forwards only the changed states to the next node of the chain, instead of polling all items in
+ * every synchronization.
+ *
+ * The stream is opened before the items are fetched, so no change is lost between a fetch and the first event. It is
+ * no longer current, as soon as an item has been added, removed or updated on the remote node, or the stream fails. It
+ * also expires after the resync period, so the items are fetched completely from time to time.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectItemEvents {
+
+    // time after which all items are fetched again, also the read timeout of the stream
+    private static final long RESYNC_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String EVENT_DATA = "data:";
+    private static final String EVENT_TOPIC = "topic";
+    private static final String EVENT_PAYLOAD = "payload";
+    private static final String EVENT_VALUE = "value";
+    private static final String TOPIC_PREFIX = "smarthome/items/";
+    private static final String TOPIC_STATE_CHANGED = "statechanged";
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectItemEvents.class);
+
+    // latest states received by the remote item names
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+    // shards fetched completely after the stream has been opened
+    private final Set<Integer> shards = ConcurrentHashMap.newKeySet();
+    private final JsonParser parser = new JsonParser();
+    private final InputStream stream;
+    private final long expiresAt;
+    private volatile boolean current = true;
+    private volatile boolean closed;
+
+    private InterconnectItemEvents(InputStream stream) {
+        this.stream = stream;
+        this.expiresAt = System.currentTimeMillis() + RESYNC_PERIOD;
+    }
+
+    /**
+     * Opens the stream of item events of the remote node.
+     *
+     * @param connections -- connections to the remote node
+     * @param threadFactory -- factory for the thread reading the event stream
+     * @return the opened stream
+     * @throws IOException if the remote node does not support item events
+     */
+    public static InterconnectItemEvents open(InterconnectConnections connections, ThreadFactory threadFactory)
+            throws IOException {
+        InterconnectItemEvents events = new InterconnectItemEvents(
+                connections.openItemEvents((int) RESYNC_PERIOD));
+        threadFactory.newThread(events::read).start();
+        return events;
+    }
+
+    /**
+     * Returns if the received states cover all changes on the remote node.
+     *
+     * @return false if all items have to be fetched again
+     */
+    public boolean isCurrent() {
+        return current && !closed && System.currentTimeMillis() < expiresAt;
+    }
+
+    /**
+     * Marks a shard as fetched completely after the stream has been opened. From now on the states of its items are
+     * covered by the events.
+     *
+     * @param shard -- the fetched shard
+     */
+    public void addShard(int shard) {
+        shards.add(shard);
+    }
+
+    /**
+     * Returns if the events cover all changes of a shard.
+     *
+     * @param shard -- the shard
+     * @return false if the items of the shard have to be fetched
+     */
+    public boolean covers(int shard) {
+        return isCurrent() && shards.contains(shard);
+    }
+
+    /**
+     * Returns the latest state received for an item.
+     *
+     * @param remoteName -- name of the item on the remote node
+     * @return the state or null, if the state has not changed since the stream has been opened
+     */
+    public @Nullable String getState(String remoteName) {
+        return states.get(remoteName);
+    }
+
+    /**
+     * Closes the event stream.
+     */
+    public void close() {
+        closed = true;
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // the stream is dropped anyway
+        }
+    }
+
+    private void read() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while (!closed && (line = reader.readLine()) != null) {
+                if (line.startsWith(EVENT_DATA)) {
+                    handleEvent(line.substring(EVENT_DATA.length()).trim());
+                }
+            }
+            if (!closed) {
+                logger.debug("Item event stream closed by the remote node.");
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("Item event stream failed: {}", e.getMessage());
+            }
+        } finally {
+            current = false;
+        }
+    }
+
+    private void handleEvent(String data) {
+        String topic;
+        JsonObject payload;
+        try {
+            JsonObject event = parser.parse(data).getAsJsonObject();
+            topic = event.get(EVENT_TOPIC).getAsString();
+            payload = parser.parse(event.get(EVENT_PAYLOAD).getAsString()).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException | NullPointerException | UnsupportedOperationException e) {
+            logger.debug("Invalid item event: {}", data);
+            return;
+        }
+        int slash = topic.lastIndexOf('/');
+        if (!topic.startsWith(TOPIC_PREFIX) || slash <= TOPIC_PREFIX.length()) {
+            return;
+        }
+        String name = topic.substring(TOPIC_PREFIX.length(), slash);
+        if (!TOPIC_STATE_CHANGED.equals(topic.substring(slash + 1))) {
+            // the items have to be fetched again
+            if (current) {
+                logger.debug("Item [{}] on remote node {}.", name, topic.substring(slash + 1));
+            }
+            current = false;
+            return;
+        }
+        JsonElement value = payload.get(EVENT_VALUE);
+        if (value != null && !value.isJsonNull()) {
+            states.put(name, value.getAsString());
+        }
+    }
+}
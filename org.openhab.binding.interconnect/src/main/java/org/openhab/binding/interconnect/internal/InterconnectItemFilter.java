@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.Item;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link InterconnectItemFilter} selects remote items, or local items to mirror, by tags, groups, types and name
+ * patterns.
+ *
+ * The filter is configured as clauses separated by ";", e.g.
+ * <code>tags=Lighting,Switchable;groups=gKitchen;include=Kitchen_.*;exclude=.*_Test</code>:
+ * <ul>
+ * <li><code>tags</code> -- the item must have all given tags</li>
+ * <li><code>groups</code> -- the item must be a direct member of at least one of the given remote groups</li>
+ * <li><code>types</code> -- the item must have one of the given types</li>
+ * <li><code>include</code> -- the remote item name must match the regular expression</li>
+ * <li><code>exclude</code> -- the remote item name must not match the regular expression</li>
+ * </ul>
+ * Criteria which are supported by the REST API of the remote node (tags and a single type) are sent as query
+ * parameters, all other criteria are checked while the response is decoded.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectItemFilter {
+
+    private static final String CLAUSE_SEPARATOR = ";";
+    private static final String VALUE_SEPARATOR = ",";
+    private static final String KEY_TAGS = "tags";
+    private static final String KEY_GROUPS = "groups";
+    private static final String KEY_TYPES = "types";
+    private static final String KEY_INCLUDE = "include";
+    private static final String KEY_EXCLUDE = "exclude";
+
+    private static final String QUERY_TAGS = "tags=";
+    private static final String QUERY_TYPE = "type=";
+
+    private List<String> tags = Collections.emptyList();
+    private List<String> groups = Collections.emptyList();
+    private List<String> types = Collections.emptyList();
+    @Nullable
+    private Pattern include;
+    @Nullable
+    private Pattern exclude;
+
+    private InterconnectItemFilter() {
+    }
+
+    /**
+     * Checks if the configuration is a filter configuration.
+     *
+     * @param conf -- item selection configuration
+     * @return true if the configuration contains filter clauses
+     */
+    public static boolean isFilter(String conf) {
+        return conf.contains("=");
+    }
+
+    /**
+     * Parses the filter configuration.
+     *
+     * @param conf -- filter clauses separated by ";"
+     * @return the filter
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public static InterconnectItemFilter parse(String conf) {
+        InterconnectItemFilter filter = new InterconnectItemFilter();
+        for (String clause : conf.split(CLAUSE_SEPARATOR)) {
+            clause = clause.trim();
+            if (clause.isEmpty()) {
+                continue;
+            }
+            int separator = clause.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid filter clause [" + clause + "]");
+            }
+            String key = clause.substring(0, separator).trim();
+            String value = clause.substring(separator + 1).trim();
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("No value for filter clause [" + key + "]");
+            }
+            try {
+                switch (key) {
+                    case KEY_TAGS:
+                        filter.tags = splitValues(value);
+                        break;
+                    case KEY_GROUPS:
+                        filter.groups = splitValues(value);
+                        break;
+                    case KEY_TYPES:
+                        filter.types = splitValues(value);
+                        break;
+                    case KEY_INCLUDE:
+                        filter.include = Pattern.compile(value);
+                        break;
+                    case KEY_EXCLUDE:
+                        filter.exclude = Pattern.compile(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown filter clause [" + key + "]");
+                }
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern for filter clause [" + key + "]", e);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Returns the criteria, which can be evaluated by the remote node, as query for the items request.
+     *
+     * @return the query without leading separator or null if nothing can be sent to the remote node
+     */
+    public @Nullable String getQuery() {
+        List<String> params = new ArrayList<>();
+        if (!tags.isEmpty()) {
+            params.add(QUERY_TAGS + encode(String.join(VALUE_SEPARATOR, tags)));
+        }
+        if (isTypePushedDown()) {
+            params.add(QUERY_TYPE + encode(types.get(0)));
+        }
+        return params.isEmpty() ? null : String.join("&", params);
+    }
+
+    /**
+     * Checks the criteria, which have not been sent to the remote node with {@link #getQuery()}, against the JSON
+     * data of a remote item.
+     *
+     * @param item -- JSON data of the remote item
+     * @return true if the item is selected
+     */
+    public boolean matchesRemaining(JsonObject item) {
+        if (!types.isEmpty() && !isTypePushedDown()
+                && !types.contains(getString(item, InterconnectBindingConstants.OPENHAB_TYPE))) {
+            return false;
+        }
+        if (!groups.isEmpty()) {
+            JsonElement groupNames = item.get(InterconnectBindingConstants.OPENHAB_GROUP_NAMES);
+            if (groupNames == null || !groupNames.isJsonArray() || !containsAny(groupNames.getAsJsonArray(), groups)) {
+                return false;
+            }
+        }
+        return matchesName(getString(item, InterconnectBindingConstants.OPENHAB_NAME));
+    }
+
+    /**
+     * Checks all criteria against a remote item.
+     *
+     * @param item -- the remote item
+     * @return true if the item is selected
+     */
+    public boolean matches(OpenHabInterconnectBindingRemoteItem item) {
+        if (!types.isEmpty() && !types.contains(item.getType())) {
+            return false;
+        }
+        if (!tags.isEmpty() && (item.getTags() == null || !item.getTags().containsAll(tags))) {
+            return false;
+        }
+        if (!groups.isEmpty()) {
+            List<String> groupNames = item.getRemoteGroupNames();
+            if (groupNames == null || Collections.disjoint(groupNames, groups)) {
+                return false;
+            }
+        }
+        return matchesName(item.getRemoteName());
+    }
+
+    /**
+     * Checks all criteria against a local item. Groups and names are matched against the local names.
+     *
+     * @param item -- the local item
+     * @return true if the item is selected
+     */
+    public boolean matches(Item item) {
+        if (!types.isEmpty() && !types.contains(item.getType())) {
+            return false;
+        }
+        if (!tags.isEmpty() && !item.getTags().containsAll(tags)) {
+            return false;
+        }
+        if (!groups.isEmpty() && Collections.disjoint(item.getGroupNames(), groups)) {
+            return false;
+        }
+        return matchesName(item.getName());
+    }
+
+    private boolean matchesName(@Nullable String name) {
+        if (name == null) {
+            return include == null;
+        }
+        Pattern include = this.include;
+        if (include != null && !include.matcher(name).matches()) {
+            return false;
+        }
+        Pattern exclude = this.exclude;
+        return exclude == null || !exclude.matcher(name).matches();
+    }
+
+    private boolean isTypePushedDown() {
+        return types.size() == 1;
+    }
+
+    private static boolean containsAny(JsonArray values, List<String> wanted) {
+        for (JsonElement value : values) {
+            if (value.isJsonPrimitive() && wanted.contains(value.getAsString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @Nullable String getString(JsonObject item, String member) {
+        JsonElement value = item.get(member);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    private static List<String> splitValues(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(VALUE_SEPARATOR)) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+}
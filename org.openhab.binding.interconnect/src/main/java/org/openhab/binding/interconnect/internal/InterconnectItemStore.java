@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectItemStore} holds the local representations of the remote items as an immutable snapshot.
+ *
+ * The synchronization works on a copy of the current snapshot and publishes the copy as new snapshot at the end of
+ * the reconciliation. Readers like the command routing or the sitemap rendering use the current snapshot without
+ * any locking. Items inside a published snapshot must not be modified, changed items are replaced by new objects.
+ *
+ * Single items may be replaced while a synchronization is running, e.g. by the hot lane. Every item carries the
+ * version of the read which delivered its state, so a newer state is never replaced by an older one.
+ *
+ * The {@link InterconnectGroupHashTree} of every shard of the current snapshot is built on demand and kept until the
+ * next snapshot is published.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectItemStore {
+
+    private volatile Map<String, OpenHabInterconnectBindingRemoteItem> snapshot = Collections.emptyMap();
+    // hash trees of the shards and the snapshot they have been built for
+    private final Map<Integer, InterconnectGroupHashTree> hashTrees = new HashMap<>();
+    @Nullable
+    private Map<String, OpenHabInterconnectBindingRemoteItem> hashTreeSnapshot;
+
+    /**
+     * Returns the current snapshot. The map is immutable and will not change.
+     *
+     * @return map of local item names to remote items
+     */
+    public Map<String, OpenHabInterconnectBindingRemoteItem> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a modifiable copy of the current snapshot.
+     *
+     * @return copy of the current snapshot
+     */
+    public Map<String, OpenHabInterconnectBindingRemoteItem> edit() {
+        return new HashMap<>(snapshot);
+    }
+
+    /**
+     * Publishes the items as new snapshot. The map must not be modified afterwards. Items of the current snapshot,
+     * which have a newer version and the same configuration, are kept.
+     *
+     * @param items -- usually a copy created by {@link #edit()}
+     */
+    public synchronized void publish(Map<String, OpenHabInterconnectBindingRemoteItem> items) {
+        Map<String, OpenHabInterconnectBindingRemoteItem> current = snapshot;
+        for (Map.Entry<String, OpenHabInterconnectBindingRemoteItem> entry : items.entrySet()) {
+            OpenHabInterconnectBindingRemoteItem currentItem = current.get(entry.getKey());
+            if (currentItem != null && currentItem != entry.getValue()
+                    && currentItem.getVersion() > entry.getValue().getVersion()
+                    && currentItem.hasSameConfig(entry.getValue())) {
+                entry.setValue(currentItem);
+            }
+        }
+        snapshot = Collections.unmodifiableMap(items);
+    }
+
+    /**
+     * Replaces a single item by publishing a new snapshot. Items which are not part of the current snapshot will not
+     * be added, items with a newer version will not be replaced.
+     *
+     * @param item -- the new item, its name is the key
+     * @return true if the item has been replaced
+     */
+    public synchronized boolean update(OpenHabInterconnectBindingRemoteItem item) {
+        Map<String, OpenHabInterconnectBindingRemoteItem> current = snapshot;
+        OpenHabInterconnectBindingRemoteItem currentItem = current.get(item.getName());
+        if (currentItem == null || currentItem.getVersion() > item.getVersion()) {
+            return false;
+        }
+        Map<String, OpenHabInterconnectBindingRemoteItem> items = new HashMap<>(current);
+        items.put(item.getName(), item);
+        snapshot = Collections.unmodifiableMap(items);
+        return true;
+    }
+
+    /**
+     * Returns the hash tree over the items of a shard of the current snapshot.
+     *
+     * @param shard -- the shard
+     * @return the hash tree
+     */
+    public synchronized InterconnectGroupHashTree hashTree(int shard) {
+        Map<String, OpenHabInterconnectBindingRemoteItem> current = snapshot;
+        if (hashTreeSnapshot != current) {
+            hashTrees.clear();
+            hashTreeSnapshot = current;
+        }
+        return hashTrees.computeIfAbsent(shard, s -> InterconnectGroupHashTree.build(current.values().stream()
+                .filter(item -> item.getShard() == s).collect(Collectors.toList())));
+    }
+
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectJsonChunks} splits a top level JSON array at the boundaries of its elements, so the chunks
+ * can be decoded in parallel. The split only scans for strings and nesting, it does not build any JSON elements.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectJsonChunks {
+
+    private InterconnectJsonChunks() {
+        // static helpers only
+    }
+
+    /**
+     * Splits a JSON array into chunks of about the same size. Every chunk is a JSON array itself, which contains the
+     * elements of the chunk in their original order.
+     *
+     * @param json -- the JSON array
+     * @param chunks -- number of chunks wanted
+     * @return the chunks in the order of the elements, or null if the JSON data is not an array
+     */
+    public static @Nullable List<String> split(String json, int chunks) {
+        int begin = 0;
+        while (begin < json.length() && Character.isWhitespace(json.charAt(begin))) {
+            ++begin;
+        }
+        if (begin == json.length() || json.charAt(begin) != '[') {
+            return null;
+        }
+        long target = Math.max(1, (json.length() - begin) / Math.max(1, chunks));
+        List<String> result = new ArrayList<>(chunks);
+        int start = begin + 1;
+        long nextCut = start + target;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = begin; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    break;
+                case '[':
+                case '{':
+                    ++depth;
+                    break;
+                case ']':
+                case '}':
+                    --depth;
+                    if (depth == 0) {
+                        // end of the top level array
+                        addChunk(result, json, start, i);
+                        return result;
+                    }
+                    break;
+                case ',':
+                    if (depth == 1 && i >= nextCut) {
+                        addChunk(result, json, start, i);
+                        start = i + 1;
+                        nextCut = start + target;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        // the array is not closed
+        return null;
+    }
+
+    private static void addChunk(List<String> result, String json, int start, int end) {
+        String elements = json.substring(start, end);
+        if (!elements.trim().isEmpty()) {
+            result.add("[" + elements + "]");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectMirror} pushes the state changes of selected local items to the items of the same name on the
+ * remote node, so the remote node does not have to poll all items of this node.
+ *
+ * Changes are collected for the batch delay and coalesced per item, only the latest state of an item is sent. If the
+ * remote node can not be reached, the unsent states are kept, unless a newer state has arrived meanwhile, and the batch
+ * is retried after the retry delay.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectMirror {
+
+    /**
+     * Sends a state to the remote node.
+     */
+    @FunctionalInterface
+    public interface Sender {
+        void send(String itemName, String value) throws IOException;
+    }
+
+    // delay after a failed push
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(10);
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectMirror.class);
+
+    private final InterconnectItemFilter filter;
+    private final ScheduledExecutorService scheduler;
+    private final long delay;
+    private final Sender sender;
+    // latest state of every changed item in the order of the changes
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    @Nullable
+    private ScheduledFuture<?> flushJob;
+    private boolean closed;
+
+    /**
+     * Creates the mirror.
+     *
+     * @param filter -- selection of the local items to push
+     * @param scheduler -- scheduler for the pushes
+     * @param delay -- time changes are collected before they are pushed, in milliseconds
+     * @param sender -- sends a state to the remote node
+     */
+    public InterconnectMirror(InterconnectItemFilter filter, ScheduledExecutorService scheduler, long delay,
+            Sender sender) {
+        this.filter = filter;
+        this.scheduler = scheduler;
+        this.delay = delay;
+        this.sender = sender;
+    }
+
+    /**
+     * Checks if the changes of a local item are pushed.
+     *
+     * @param item -- the local item
+     * @return true if the item is selected
+     */
+    public boolean isMirrored(Item item) {
+        return filter.matches(item);
+    }
+
+    /**
+     * Queues the new state of an item. A state of the same item, which has not been pushed yet, is replaced.
+     *
+     * @param itemName -- name of the item
+     * @param value -- the new state
+     */
+    public synchronized void offer(String itemName, String value) {
+        if (closed) {
+            return;
+        }
+        pending.remove(itemName);
+        pending.put(itemName, value);
+        schedule(delay);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops pushing. Unsent states are dropped.
+     */
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+        ScheduledFuture<?> job = flushJob;
+        if (job != null) {
+            job.cancel(false);
+            flushJob = null;
+        }
+    }
+
+    private void schedule(long delay) {
+        if (flushJob == null) {
+            flushJob = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        Map<String, String> batch;
+        synchronized (this) {
+            flushJob = null;
+            if (closed || pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        List<String> sent = new ArrayList<>(batch.size());
+        try {
+            for (Map.Entry<String, String> entry : batch.entrySet()) {
+                sender.send(entry.getKey(), entry.getValue());
+                sent.add(entry.getKey());
+            }
+            logger.debug("{} item states pushed to the remote node.", sent.size());
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Unable to push item states to the remote node, {} pending: {}", batch.size() - sent.size(),
+                    e.getMessage());
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                // newer states, which arrived during the push, win over the unsent ones
+                Map<String, String> newer = new LinkedHashMap<>(pending);
+                pending.clear();
+                for (Map.Entry<String, String> entry : batch.entrySet()) {
+                    if (!sent.contains(entry.getKey()) && !newer.containsKey(entry.getKey())) {
+                        pending.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                pending.putAll(newer);
+                ScheduledFuture<?> job = flushJob;
+                if (job != null) {
+                    job.cancel(false);
+                    flushJob = null;
+                }
+                schedule(RETRY_DELAY);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectOutbox} stores the commands, which could not be sent to the remote node, in an append-only
+ * file until the remote node is reachable again.
+ *
+ * Every command is appended as line <code>timestamp TAB local name TAB remote name TAB value</code>, names and value
+ * Base64 encoded. The commands are coalesced per item in memory, only the last value of an item is kept (last write
+ * wins). The file is rewritten from memory, when it has grown to twice the size bound, and truncated when all
+ * commands have been sent. Commands older than the maximum age are dropped, if the size bound is exceeded the oldest
+ * items are dropped.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectOutbox {
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * The last command of an item.
+     */
+    public static class Entry {
+        private final String name;
+        private final String remoteName;
+        private final String value;
+        private final long timestamp;
+
+        Entry(String name, String remoteName, String value, long timestamp) {
+            this.name = name;
+            this.remoteName = remoteName;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRemoteName() {
+            return remoteName;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectOutbox.class);
+
+    private final File file;
+    private final long maxAge;
+    private final int maxSize;
+    // last command of every item in the order of the commands
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // lines in the file
+    private int lines;
+
+    /**
+     * Opens the outbox and loads the commands, which have been stored before.
+     *
+     * @param file -- the outbox file, created if it does not exist
+     * @param maxAge -- maximum age of a command in milliseconds
+     * @param maxSize -- maximum number of items in the outbox
+     * @throws IOException if the file can not be read
+     */
+    public InterconnectOutbox(File file, long maxAge, int maxSize) throws IOException {
+        this.file = file;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        File folder = file.getAbsoluteFile().getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Unable to create folder for outbox file " + file.getPath());
+        }
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * Stores a command. A previous command of the same item is replaced.
+     *
+     * @param name -- local name of the item
+     * @param remoteName -- name of the item on the remote node
+     * @param value -- the value to send
+     */
+    public synchronized void add(String name, String remoteName, String value) {
+        Entry entry = new Entry(name, remoteName, value, System.currentTimeMillis());
+        entries.remove(name);
+        entries.put(name, entry);
+        try {
+            Files.write(file.toPath(), Collections.singletonList(format(entry)), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            ++lines;
+        } catch (IOException e) {
+            logger.warn("Unable to write to outbox file [{}]: {}", file.getPath(), e.getMessage());
+        }
+        if (entries.size() > maxSize || lines > 2 * maxSize) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the value of the stored command of an item.
+     *
+     * @param name -- local name of the item
+     * @return the value or null if no command is stored
+     */
+    public synchronized @Nullable String getValue(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns up to the given number of commands in the order they have been made. Expired commands are dropped.
+     *
+     * @param batchSize -- maximum number of commands
+     * @return the oldest commands
+     */
+    public synchronized List<Entry> peek(int batchSize) {
+        expire();
+        List<Entry> batch = new ArrayList<>(Math.min(batchSize, entries.size()));
+        for (Entry entry : entries.values()) {
+            if (batch.size() >= batchSize) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Removes a command, which has been sent. A newer command of the same item is kept. The file is truncated as soon
+     * as the outbox is empty.
+     *
+     * @param entry -- the sent command
+     */
+    public synchronized void remove(Entry entry) {
+        entries.remove(entry.name, entry);
+        if (entries.isEmpty() && lines > 0) {
+            compact();
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void expire() {
+        long oldest = System.currentTimeMillis() - maxAge;
+        int expired = 0;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().timestamp < oldest) {
+                it.remove();
+                ++expired;
+            }
+        }
+        if (expired > 0) {
+            logger.warn("{} commands in outbox [{}] expired.", expired, file.getPath());
+            compact();
+        }
+    }
+
+    /**
+     * Drops the oldest items above the size bound and rewrites the file from memory.
+     */
+    private void compact() {
+        Iterator<Entry> it = entries.values().iterator();
+        int dropped = 0;
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            ++dropped;
+        }
+        if (dropped > 0) {
+            logger.warn("Outbox [{}] full, {} commands dropped.", file.getPath(), dropped);
+        }
+        List<String> content = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            content.add(format(entry));
+        }
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.write(tmpFile.toPath(), content, StandardCharsets.UTF_8);
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            lines = content.size();
+        } catch (IOException e) {
+            logger.warn("Unable to rewrite outbox file [{}]: {}", file.getPath(), e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            ++lineNumber;
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(SEPARATOR, -1);
+            try {
+                String name = InterconnectTraceRecorder.decode(fields[1]);
+                String remoteName = InterconnectTraceRecorder.decode(fields[2]);
+                String value = InterconnectTraceRecorder.decode(fields[3]);
+                if (name == null || remoteName == null || value == null) {
+                    throw new IllegalArgumentException("Missing field");
+                }
+                entries.remove(name);
+                entries.put(name, new Entry(name, remoteName, value, Long.parseLong(fields[0])));
+                ++lines;
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                // e.g. a line which has been written partially during a crash
+                logger.warn("Skipping invalid line {} in outbox file [{}].", lineNumber, file.getPath());
+            }
+        }
+        if (!entries.isEmpty()) {
+            logger.info("{} commands loaded from outbox [{}].", entries.size(), file.getPath());
+        }
+    }
+
+    private static String format(Entry entry) {
+        return entry.timestamp + SEPARATOR + InterconnectTraceRecorder.encode(entry.name) + SEPARATOR
+                + InterconnectTraceRecorder.encode(entry.remoteName) + SEPARATOR
+                + InterconnectTraceRecorder.encode(entry.value);
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectPipeline} runs the stages of a synchronization, which wait for I/O, on their own executors,
+ * so they overlap with the work of the synchronizing thread.
+ *
+ * <ul>
+ * <li>fetch -- requests to the remote node run on a small pool, a bounded number of responses ahead of the decoding
+ * thread; e.g. sitemap N+1 is fetched while sitemap N is decoded</li>
+ * <li>decode, reconcile, apply -- run on the synchronizing thread, as they work on the item store</li>
+ * <li>write -- the sitemap files are rendered by a single writer thread from the latest published items, while the
+ * states are applied to the registry. Requests made while a write is waiting are coalesced into it.</li>
+ * </ul>
+ * The time spent in every stage is summed up and can be logged after every cycle.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectPipeline {
+
+    /**
+     * The stages of the pipeline.
+     */
+    public enum Stage {
+        FETCH,
+        FETCH_WAIT,
+        DECODE,
+        RECONCILE,
+        APPLY,
+        WRITE
+    }
+
+    /**
+     * A request to the remote node.
+     *
+     * @param <K> -- type of the key the request is made for
+     */
+    @FunctionalInterface
+    public interface Fetch<K> {
+        @Nullable
+        String fetch(K key) throws IOException;
+    }
+
+    // responses fetched ahead of the decoding thread, which is also the number of fetch threads
+    private static final int FETCH_WINDOW = 2;
+    // time a running write gets to complete on close, so no sitemap file is left half replaced
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectPipeline.class);
+
+    private final ExecutorService fetchExecutor;
+    private final ExecutorService writeExecutor;
+    private final AtomicBoolean writeQueued = new AtomicBoolean();
+
+    private final long[] count = new long[Stage.values().length];
+    private final long[] total = new long[Stage.values().length];
+    private final long[] max = new long[Stage.values().length];
+
+    /**
+     * Creates the executors of the pipeline.
+     *
+     * @param id -- id of the thing, used for the thread names
+     */
+    public InterconnectPipeline(String id) {
+        this.fetchExecutor = Executors.newFixedThreadPool(FETCH_WINDOW,
+                new NamedThreadFactory("interconnect-fetch-" + id, true));
+        this.writeExecutor = Executors
+                .newSingleThreadExecutor(new NamedThreadFactory("interconnect-write-" + id, true));
+    }
+
+    /**
+     * Starts fetching the responses for the keys. At most {@link #FETCH_WINDOW} responses are fetched ahead, the next
+     * request starts as soon as a response is taken.
+     *
+     * @param keys -- the keys in the order the responses will be taken
+     * @param fetch -- the request for a key
+     * @return the responses, which must be closed after use
+     */
+    public <K> Fetches<K> fetch(List<K> keys, Fetch<K> fetch) {
+        return new Fetches<>(keys, fetch);
+    }
+
+    /**
+     * Queues a write. If a write is already waiting, the request is coalesced into it, so the write task must render
+     * the latest state when it runs.
+     *
+     * @param write -- the write task
+     */
+    public void write(Runnable write) {
+        if (!writeQueued.compareAndSet(false, true)) {
+            return;
+        }
+        writeExecutor.execute(() -> {
+            writeQueued.set(false);
+            long start = System.nanoTime();
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                logger.error("Unable to write sitemap files of interconnect binding!", e);
+            } finally {
+                record(Stage.WRITE, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Waits until the writes queued so far have been completed.
+     *
+     * @param timeout -- maximum time to wait in milliseconds
+     * @return true if the writes have been completed, false if the timeout has elapsed
+     * @throws InterruptedException
+     */
+    public boolean awaitWrites(long timeout) throws InterruptedException {
+        // the writes run one after another, so they are completed as soon as this task runs
+        Future<?> barrier = writeExecutor.submit(() -> {
+        });
+        try {
+            barrier.get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds the time spent in a stage.
+     *
+     * @param stage -- the stage
+     * @param nanos -- time spent
+     */
+    public synchronized void record(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        ++count[i];
+        total[i] += nanos;
+        max[i] = Math.max(max[i], nanos);
+    }
+
+    /**
+     * Returns the average and maximum time of every stage, which has run.
+     *
+     * @return e.g. "fetch 35.2 ms (max 80.1), decode 4.0 ms (max 9.3)"
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            int i = stage.ordinal();
+            if (count[i] == 0) {
+                continue;
+            }
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            double millis = TimeUnit.MILLISECONDS.toNanos(1);
+            summary.append(String.format("%s %.1f ms (max %.1f)", stage.name().toLowerCase(Locale.ROOT),
+                    total[i] / millis / count[i], max[i] / millis));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Stops the executors. A running write is given some time to complete.
+     */
+    public void close() {
+        fetchExecutor.shutdownNow();
+        writeExecutor.shutdown();
+        try {
+            if (!writeExecutor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                writeExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writeExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The responses of the requests started by {@link InterconnectPipeline#fetch(List, Fetch)}.
+     *
+     * @param <K> -- type of the keys
+     */
+    public class Fetches<K> implements AutoCloseable {
+        private final Deque<K> keys;
+        private final Fetch<K> fetch;
+        private final Deque<Future<String>> running = new ArrayDeque<>();
+
+        private Fetches(List<K> keys, Fetch<K> fetch) {
+            this.keys = new ArrayDeque<>(keys);
+            this.fetch = fetch;
+            while (running.size() < FETCH_WINDOW && !this.keys.isEmpty()) {
+                submitNext();
+            }
+        }
+
+        /**
+         * Waits for the next response in the order of the keys.
+         *
+         * @return the response
+         * @throws IOException if the request has failed
+         */
+        public @Nullable String next() throws IOException {
+            Future<String> future = running.poll();
+            if (future == null) {
+                throw new IllegalStateException("No more responses");
+            }
+            // keep the window full while the response is decoded
+            if (!keys.isEmpty()) {
+                submitNext();
+            }
+            long start = System.nanoTime();
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the remote node");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            } finally {
+                record(Stage.FETCH_WAIT, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Cancels the requests, whose responses have not been taken.
+         */
+        @Override
+        public void close() {
+            keys.clear();
+            Future<String> future;
+            while ((future = running.poll()) != null) {
+                future.cancel(true);
+            }
+        }
+
+        private void submitNext() {
+            K key = keys.poll();
+            running.add(fetchExecutor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return fetch.fetch(key);
+                } finally {
+                    record(Stage.FETCH, System.nanoTime() - start);
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectRateLimiter} limits the requests sent to a remote node. All things, which connect to the same
+ * node, share one limiter, so the synchronizations, hot lanes, commands and refreshes of all things together stay
+ * within the limits.
+ *
+ * Reads and writes have separate token buckets, each refilled with the configured requests per second and holding up
+ * to one second of requests. In addition the number of requests running at the same time is capped. Waiting requests
+ * are served by their priority, commands before refreshes before synchronizations, and in the order of their arrival
+ * within the same priority. Waiters age, a request is served before requests of a higher priority, which arrived more
+ * than {@link #AGING} per priority level later, so a steady stream of refreshes cannot starve the synchronization.
+ * The time spent waiting is recorded per priority.
+ *
+ * The settings of the thing, which has been configured last, apply to the node.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectRateLimiter {
+
+    /**
+     * The kind of a request, every kind has its own budget.
+     */
+    public enum Kind {
+        READ,
+        WRITE
+    }
+
+    /**
+     * The priority of a request, in descending order.
+     */
+    public enum Priority {
+        COMMAND,
+        REFRESH,
+        SYNC
+    }
+
+    // a request waiting longer fails, so a synchronization does not block its thread for ever
+    private static final long MAX_WAIT = TimeUnit.SECONDS.toNanos(30);
+    // head start of a request over the requests of the next lower priority, well below MAX_WAIT
+    private static final long AGING = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Thrown if a request has waited too long for its permit. The remote node has not been contacted, so this is no
+     * failure of the remote node.
+     */
+    public static class LimitExceededException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    // limiters of all nodes in use
+    private static final Map<String, InterconnectRateLimiter> LIMITERS = new HashMap<>();
+
+    /**
+     * A request waiting for its permit.
+     */
+    private static class Waiter {
+        private final Kind kind;
+        // arrival time delayed by the priority, waiters are served in the order of their due time
+        private final long due;
+        private final long arrival;
+
+        Waiter(Kind kind, Priority priority, long now, long arrival) {
+            this.kind = kind;
+            this.due = now + priority.ordinal() * AGING;
+            this.arrival = arrival;
+        }
+
+        boolean isBefore(Waiter other) {
+            long diff = due - other.due;
+            return diff < 0 || diff == 0 && arrival < other.arrival;
+        }
+    }
+
+    private final String node;
+    private int users;
+
+    // requests per second of every kind, 0 for no limit
+    private final double[] rates = new double[Kind.values().length];
+    private final double[] tokens = new double[Kind.values().length];
+    private long lastRefill = System.nanoTime();
+    // maximum number of concurrent requests, 0 for no limit
+    private int maxConcurrent;
+    private int running;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private long arrivals;
+
+    // queue wait per priority
+    private final long[] waitCount = new long[Priority.values().length];
+    private final long[] waitTotal = new long[Priority.values().length];
+    private final long[] waitMax = new long[Priority.values().length];
+
+    private InterconnectRateLimiter(String node) {
+        this.node = node;
+    }
+
+    /**
+     * Returns the limiter of a node, which is shared with all other users of the node. Every limiter must be released
+     * by {@link #release()}, when it is no longer used.
+     *
+     * @param node -- key of the remote node, see {@link InterconnectEndpoints#getNodeKey()}
+     * @return the limiter of the node
+     */
+    public static InterconnectRateLimiter acquire(String node) {
+        synchronized (LIMITERS) {
+            InterconnectRateLimiter limiter = LIMITERS.computeIfAbsent(node, InterconnectRateLimiter::new);
+            ++limiter.users;
+            return limiter;
+        }
+    }
+
+    /**
+     * Releases the limiter. The limiter is dropped, after its last user has released it.
+     */
+    public void release() {
+        synchronized (LIMITERS) {
+            if (--users <= 0) {
+                LIMITERS.remove(node, this);
+            }
+        }
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Sets the limits of the node.
+     *
+     * @param readRate -- read requests per second, 0 for no limit
+     * @param writeRate -- write requests per second, 0 for no limit
+     * @param maxConcurrent -- maximum number of concurrent requests, 0 for no limit
+     */
+    public synchronized void configure(double readRate, double writeRate, int maxConcurrent) {
+        refill(System.nanoTime());
+        double[] previousRates = rates.clone();
+        rates[Kind.READ.ordinal()] = readRate;
+        rates[Kind.WRITE.ordinal()] = writeRate;
+        for (Kind kind : Kind.values()) {
+            int i = kind.ordinal();
+            // a bucket starts full
+            tokens[i] = previousRates[i] <= 0 ? burst(kind) : Math.min(tokens[i], burst(kind));
+        }
+        this.maxConcurrent = maxConcurrent;
+        notifyAll();
+    }
+
+    /**
+     * Waits for the permit to send a request. Every permit must be returned by {@link #finish()}, after the request
+     * has been completed.
+     *
+     * @param kind -- the kind of the request
+     * @param priority -- the priority of the request
+     * @return the time waited in nanoseconds
+     * @throws LimitExceededException if the request has waited too long
+     * @throws IOException if the thread has been interrupted
+     */
+    public synchronized long start(Kind kind, Priority priority) throws IOException {
+        long start = System.nanoTime();
+        Waiter waiter = new Waiter(kind, priority, start, arrivals++);
+        waiters.add(waiter);
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                if (canStart(waiter)) {
+                    break;
+                }
+                long waited = now - start;
+                if (waited >= MAX_WAIT) {
+                    throw new LimitExceededException("Rate limit of remote node " + node + " exceeded, "
+                            + kind.name().toLowerCase(Locale.ROOT) + " request dropped");
+                }
+                wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(Math.min(MAX_WAIT - waited, nextToken(kind)))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for remote node " + node);
+        } finally {
+            waiters.remove(waiter);
+            // the waiters behind may proceed now
+            notifyAll();
+        }
+        if (rates[kind.ordinal()] > 0) {
+            --tokens[kind.ordinal()];
+        }
+        ++running;
+        long waited = System.nanoTime() - start;
+        int i = priority.ordinal();
+        ++waitCount[i];
+        waitTotal[i] += waited;
+        waitMax[i] = Math.max(waitMax[i], waited);
+        return waited;
+    }
+
+    /**
+     * Returns the permit of a completed request.
+     */
+    public synchronized void finish() {
+        --running;
+        notifyAll();
+    }
+
+    /**
+     * Returns the average time requests of the priority have waited for their permit.
+     *
+     * @param priority -- the priority
+     * @return average wait in milliseconds
+     */
+    public synchronized double getAverageWait(Priority priority) {
+        int i = priority.ordinal();
+        return waitCount[i] == 0 ? 0 : waitTotal[i] / (double) waitCount[i] / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the longest time a request of the priority has waited for its permit.
+     *
+     * @param priority -- the priority
+     * @return maximum wait in milliseconds
+     */
+    public synchronized double getMaxWait(Priority priority) {
+        return waitMax[priority.ordinal()] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the number of requests of the priority, which have got their permit.
+     *
+     * @param priority -- the priority
+     * @return number of requests
+     */
+    public synchronized long getRequests(Priority priority) {
+        return waitCount[priority.ordinal()];
+    }
+
+    /**
+     * A waiter may start, if a slot and a token of its kind are free, and no waiter before it is able to use them.
+     */
+    private boolean canStart(Waiter waiter) {
+        if (maxConcurrent > 0 && running >= maxConcurrent) {
+            return false;
+        }
+        if (!hasToken(waiter.kind)) {
+            return false;
+        }
+        for (Waiter other : waiters) {
+            // a waiter of the other kind without a token does not hold back the slot
+            if (other != waiter && other.isBefore(waiter) && (other.kind == waiter.kind || hasToken(other.kind))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasToken(Kind kind) {
+        return rates[kind.ordinal()] <= 0 || tokens[kind.ordinal()] >= 1;
+    }
+
+    private double burst(Kind kind) {
+        return Math.max(1, rates[kind.ordinal()]);
+    }
+
+    private void refill(long now) {
+        double seconds = (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRefill = now;
+        for (Kind kind : Kind.values()) {
+            int i = kind.ordinal();
+            if (rates[i] > 0) {
+                tokens[i] = Math.min(burst(kind), tokens[i] + seconds * rates[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the time until the next token of the kind, or a default wait if the waiter waits for a slot.
+     */
+    private long nextToken(Kind kind) {
+        int i = kind.ordinal();
+        if (rates[i] <= 0 || tokens[i] >= 1) {
+            return TimeUnit.SECONDS.toNanos(1);
+        }
+        return (long) Math.ceil((1 - tokens[i]) / rates[i] * TimeUnit.SECONDS.toNanos(1));
+    }
+}
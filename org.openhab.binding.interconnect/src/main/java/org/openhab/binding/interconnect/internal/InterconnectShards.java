@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectShards} splits the remote items into shards, which are synchronized one after another within
+ * the refresh period.
+ *
+ * Items are assigned by the hash of their first remote group, or of their own name if they are not part of a group,
+ * so the members of a group stay together. In the sitemap selection modes whole sitemaps are assigned to the shards.
+ * The last result of every shard is kept, so the failure of a single shard can be told apart from a failure of the
+ * whole remote node.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectShards {
+
+    private final int count;
+    private final boolean[] failed;
+    private int failedCount;
+
+    /**
+     * Creates the shards.
+     *
+     * @param count -- number of shards, at least 1
+     */
+    public InterconnectShards(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Invalid number of shards [" + count + "]");
+        }
+        this.count = count;
+        this.failed = new boolean[count];
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the shard of a remote item.
+     *
+     * @param item -- the remote item
+     * @return the shard
+     */
+    public int shardOf(OpenHabInterconnectBindingRemoteItem item) {
+        if (count == 1) {
+            return 0;
+        }
+        List<String> groupNames = item.getRemoteGroupNames();
+        return shardOfKey(groupNames == null || groupNames.isEmpty() ? item.getRemoteName() : groupNames.get(0));
+    }
+
+    /**
+     * Returns the shard of a remote sitemap.
+     *
+     * @param sitemapName -- name of the remote sitemap
+     * @return the shard
+     */
+    public int shardOfSitemap(String sitemapName) {
+        return shardOfKey(sitemapName);
+    }
+
+    /**
+     * Returns the delay of the shard within the refresh period.
+     *
+     * @param shard -- the shard
+     * @param period -- the refresh period
+     * @return the offset of the shard in the unit of the period
+     */
+    public long offset(int shard, long period) {
+        return period * shard / count;
+    }
+
+    /**
+     * Records the result of the last synchronization of the shard.
+     *
+     * @param shard -- the shard
+     * @param success -- outcome of the synchronization
+     * @return true if the number of failed shards has changed
+     */
+    public synchronized boolean setResult(int shard, boolean success) {
+        if (failed[shard] == !success) {
+            return false;
+        }
+        failed[shard] = !success;
+        failedCount += success ? -1 : 1;
+        return true;
+    }
+
+    /**
+     * Returns the number of shards, whose last synchronization has failed.
+     *
+     * @return number of failed shards
+     */
+    public synchronized int failedCount() {
+        return failedCount;
+    }
+
+    private int shardOfKey(String key) {
+        return Math.floorMod(key.hashCode(), count);
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link InterconnectSitemapSubscription} receives the state changes of the items of a remote sitemap by the
+ * sitemap events of the remote node, instead of fetching the whole sitemap in every synchronization.
+ *
+ * Every page of the sitemap, the homepage and all linked pages, gets its own subscription and event stream. The
+ * items found by the last full fetch of the sitemap are kept together with the latest states received. The sitemap is
+ * fetched once more after all streams have been opened, this fetch is the baseline, which the events are applied to,
+ * so no change is lost while the streams are opened. The subscription is no longer current, as soon as the structure
+ * of a page has changed, an item unknown to the last fetch appears, or an event stream fails. Then the sitemap has to
+ * be fetched again and a new subscription has to be opened.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectSitemapSubscription {
+
+    // time without any event, after which a stream is considered dead; the remote node sends alive events regularly
+    private static final int READ_TIMEOUT = (int) TimeUnit.MINUTES.toMillis(2);
+    // sitemaps with more pages are polled, to keep the number of open streams on the remote node small
+    private static final int MAX_PAGES = 16;
+
+    private static final String SUBSCRIPTION_CONTEXT = "context";
+    private static final String SUBSCRIPTION_HEADERS = "headers";
+    private static final String SUBSCRIPTION_LOCATION = "Location";
+    private static final String PAGE_ID = "id";
+    private static final String EVENT_TYPE = "type";
+    private static final String EVENT_TYPE_ALIVE = "ALIVE";
+    private static final String EVENT_DESCRIPTION_CHANGED = "descriptionChanged";
+    private static final String EVENT_DATA = "data:";
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectSitemapSubscription.class);
+
+    private final String sitemapName;
+    // items of the last full fetch by their remote names
+    private volatile Map<String, OpenHabInterconnectBindingRemoteItem> items = new LinkedHashMap<>();
+    // latest states received by their remote names
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+    private final Set<String> pageIds;
+    private final List<InputStream> streams = new CopyOnWriteArrayList<>();
+    private final JsonParser parser = new JsonParser();
+    private volatile boolean current = true;
+    private volatile boolean closed;
+
+    private InterconnectSitemapSubscription(String sitemapName, Set<String> pageIds,
+            List<OpenHabInterconnectBindingRemoteItem> items) {
+        this.sitemapName = sitemapName;
+        this.pageIds = pageIds;
+        setItems(items);
+    }
+
+    /**
+     * Subscribes to the events of all pages of a sitemap.
+     *
+     * @param connections -- connections to the remote node
+     * @param threadFactory -- factory for the threads reading the event streams
+     * @param sitemapName -- name of the sitemap
+     * @param homepage -- JSON data of the homepage, as fetched from the remote node
+     * @param items -- the items of the sitemap, as fetched from the remote node
+     * @return the subscription or null, if the sitemap has too many pages
+     * @throws IOException if the remote node does not support sitemap events
+     */
+    public static @Nullable InterconnectSitemapSubscription open(InterconnectConnections connections,
+            ThreadFactory threadFactory, String sitemapName, JsonObject homepage,
+            List<OpenHabInterconnectBindingRemoteItem> items) throws IOException {
+        Set<String> pageIds = new LinkedHashSet<>();
+        collectPageIds(homepage, pageIds);
+        if (pageIds.isEmpty() || pageIds.size() > MAX_PAGES) {
+            return null;
+        }
+        InterconnectSitemapSubscription subscription = new InterconnectSitemapSubscription(sitemapName, pageIds,
+                items);
+        try {
+            for (String pageId : pageIds) {
+                String subscriptionId = parseSubscriptionId(connections.subscribeSitemapEvents());
+                InputStream stream = connections.openSitemapEvents(subscriptionId, sitemapName, pageId,
+                        READ_TIMEOUT);
+                subscription.streams.add(stream);
+                Thread thread = threadFactory.newThread(() -> subscription.read(stream, pageId));
+                thread.start();
+            }
+        } catch (IOException | RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return subscription;
+    }
+
+    public String getSitemapName() {
+        return sitemapName;
+    }
+
+    /**
+     * Replaces the items by the sitemap fetched after all event streams have been opened. States received by events
+     * are kept, because they are newer than this fetch.
+     *
+     * @param homepage -- JSON data of the homepage, as fetched after the streams have been opened
+     * @param items -- the items of the sitemap, as fetched after the streams have been opened
+     * @return false if the pages of the sitemap have changed, then the subscription has to be closed
+     */
+    public boolean setBaseline(JsonObject homepage, List<OpenHabInterconnectBindingRemoteItem> items) {
+        Set<String> baselinePageIds = new LinkedHashSet<>();
+        collectPageIds(homepage, baselinePageIds);
+        if (!pageIds.equals(baselinePageIds)) {
+            return false;
+        }
+        setItems(items);
+        return true;
+    }
+
+    private void setItems(List<OpenHabInterconnectBindingRemoteItem> items) {
+        Map<String, OpenHabInterconnectBindingRemoteItem> copies = new LinkedHashMap<>();
+        for (OpenHabInterconnectBindingRemoteItem item : items) {
+            copies.put(item.getRemoteName(), item.withState(item.getState()));
+        }
+        this.items = copies;
+    }
+
+    /**
+     * Returns if the items and states of the subscription reflect the remote sitemap.
+     *
+     * @return false if the sitemap has to be fetched again
+     */
+    public boolean isCurrent() {
+        return current && !closed;
+    }
+
+    /**
+     * Returns the items of the sitemap with the latest states received.
+     *
+     * @return new copies of the items
+     */
+    public List<OpenHabInterconnectBindingRemoteItem> getItems() {
+        List<OpenHabInterconnectBindingRemoteItem> result = new ArrayList<>(items.size());
+        for (OpenHabInterconnectBindingRemoteItem item : items.values()) {
+            result.add(item.withState(states.getOrDefault(item.getRemoteName(), item.getState())));
+        }
+        return result;
+    }
+
+    /**
+     * Closes all event streams.
+     */
+    public void close() {
+        closed = true;
+        for (InputStream stream : streams) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // the stream is dropped anyway
+            }
+        }
+        streams.clear();
+    }
+
+    private void read(InputStream stream, String pageId) {
+        StringBuilder data = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while (!closed && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    // an empty line ends the event
+                    if (data.length() > 0) {
+                        handleEvent(data.toString(), pageId);
+                        data.setLength(0);
+                    }
+                } else if (line.startsWith(EVENT_DATA)) {
+                    data.append(line.substring(EVENT_DATA.length()).trim());
+                }
+            }
+            if (!closed) {
+                logger.debug("Event stream of page [{}] of sitemap [{}] closed by the remote node.", pageId,
+                        sitemapName);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("Event stream of page [{}] of sitemap [{}] failed: {}", pageId, sitemapName,
+                        e.getMessage());
+            }
+        } finally {
+            current = false;
+        }
+    }
+
+    private void handleEvent(String data, String pageId) {
+        JsonObject event;
+        try {
+            event = parser.parse(data).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            logger.debug("Invalid event on page [{}] of sitemap [{}]: {}", pageId, sitemapName, data);
+            return;
+        }
+        JsonElement type = event.get(EVENT_TYPE);
+        if (type != null && !type.isJsonNull()) {
+            if (!EVENT_TYPE_ALIVE.equals(type.getAsString())) {
+                // e.g. the sitemap has been changed on the remote node
+                invalidate(pageId, type.getAsString());
+            }
+            return;
+        }
+        JsonElement descriptionChanged = event.get(EVENT_DESCRIPTION_CHANGED);
+        if (descriptionChanged != null && !descriptionChanged.isJsonNull() && descriptionChanged.getAsBoolean()) {
+            invalidate(pageId, "description changed");
+            return;
+        }
+        JsonElement itemData = event.get(InterconnectBindingConstants.OPENHAB_ITEM);
+        if (itemData == null || !itemData.isJsonObject()) {
+            return;
+        }
+        JsonObject item = itemData.getAsJsonObject();
+        JsonElement name = item.get(InterconnectBindingConstants.OPENHAB_NAME);
+        JsonElement state = item.get(InterconnectBindingConstants.OPENHAB_STATE);
+        if (name == null || state == null || state.isJsonNull()) {
+            return;
+        }
+        if (!items.containsKey(name.getAsString())) {
+            invalidate(pageId, "new item " + name.getAsString());
+            return;
+        }
+        states.put(name.getAsString(), state.getAsString());
+    }
+
+    private void invalidate(String pageId, String reason) {
+        if (current) {
+            logger.debug("Structure of page [{}] of sitemap [{}] changed: {}", pageId, sitemapName, reason);
+        }
+        current = false;
+    }
+
+    /**
+     * The remote node returns the location of the new subscription, whose last segment is the subscription id.
+     */
+    private static String parseSubscriptionId(String response) throws IOException {
+        try {
+            JsonObject headers = new JsonParser().parse(response).getAsJsonObject()
+                    .getAsJsonObject(SUBSCRIPTION_CONTEXT).getAsJsonObject(SUBSCRIPTION_HEADERS);
+            JsonArray location = headers.getAsJsonArray(SUBSCRIPTION_LOCATION);
+            String url = location.get(0).getAsString();
+            return url.substring(url.lastIndexOf('/') + 1);
+        } catch (JsonParseException | IllegalStateException | NullPointerException | ClassCastException
+                | IndexOutOfBoundsException e) {
+            throw new IOException("Sitemap events not supported by the remote node");
+        }
+    }
+
+    private static void collectPageIds(JsonObject page, Set<String> pageIds) {
+        JsonElement id = page.get(PAGE_ID);
+        if (id != null && !id.isJsonNull()) {
+            pageIds.add(id.getAsString());
+        }
+        collectPageIds(page.getAsJsonArray(InterconnectBindingConstants.OPENHAB_WIDGETS), pageIds);
+    }
+
+    private static void collectPageIds(@Nullable JsonArray widgets, Set<String> pageIds) {
+        if (widgets == null) {
+            return;
+        }
+        for (JsonElement widget : widgets) {
+            JsonObject widgetObject = widget.getAsJsonObject();
+            JsonElement linkedPage = widgetObject.get(InterconnectBindingConstants.CHANNEL_GROUP_PAGE);
+            if (linkedPage != null && linkedPage.isJsonObject()) {
+                collectPageIds(linkedPage.getAsJsonObject(), pageIds);
+            }
+            // frames nest their widgets without a page of their own
+            collectPageIds(widgetObject.getAsJsonArray(InterconnectBindingConstants.OPENHAB_WIDGETS), pageIds);
+        }
+    }
+}
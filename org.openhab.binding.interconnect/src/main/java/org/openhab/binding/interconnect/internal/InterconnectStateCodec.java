@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PlayPauseType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.RewindFastforwardType;
+import org.eclipse.smarthome.core.library.types.StringListType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.Type;
+import org.eclipse.smarthome.core.types.UnDefType;
+
+/**
+ * The {@link InterconnectStateCodec} converts between the states of the remote node, as they are sent by the REST
+ * interface, and the states of the local items. The decoder is chosen by the item type, so the remote state is parsed
+ * once by its own type, instead of trying all accepted data types of the item.
+ *
+ * States, which are constants (e.g. ON, OPEN, NULL), are mapped to the shared instances without creating any object.
+ * Types without a decoder (e.g. Image or dimensioned numbers) are left to the generic type parser by returning null.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectStateCodec {
+
+    private InterconnectStateCodec() {
+        // static helpers only
+    }
+
+    /**
+     * Decodes the state of a remote item.
+     *
+     * @param itemType -- type of the item, e.g. Switch
+     * @param value -- state as sent by the remote node
+     * @return the state or null, if the type has no decoder or the value does not fit the type
+     */
+    public static @Nullable State decode(String itemType, String value) {
+        State undefined = decodeUndefined(value);
+        if (undefined != null) {
+            return undefined;
+        }
+        try {
+            switch (itemType) {
+                case InterconnectBindingConstants.CHANNEL_SWITCH:
+                    return decodeOnOff(value);
+                case InterconnectBindingConstants.CHANNEL_CONTACT:
+                    return decodeOpenClosed(value);
+                case InterconnectBindingConstants.CHANNEL_DIMMER:
+                    return decodePercent(value);
+                case InterconnectBindingConstants.CHANNEL_ROLLERSHUTTER:
+                    State upDown = decodeUpDown(value);
+                    return upDown != null ? upDown : decodePercent(value);
+                case InterconnectBindingConstants.CHANNEL_COLOR:
+                    State onOff = decodeOnOff(value);
+                    return onOff != null ? onOff : new HSBType(value);
+                case InterconnectBindingConstants.CHANNEL_NUMBER:
+                    return new DecimalType(value);
+                case InterconnectBindingConstants.CHANNEL_STRING:
+                    return value.isEmpty() ? StringType.EMPTY : new StringType(value);
+                case InterconnectBindingConstants.CHANNEL_DATETIME:
+                    return new DateTimeType(value);
+                case InterconnectBindingConstants.CHANNEL_PLAYER:
+                    return decodePlayer(value);
+                case InterconnectBindingConstants.CHANNEL_LOCATION:
+                    return new PointType(value);
+                case InterconnectBindingConstants.CHANNEL_CALL:
+                    return new StringListType(value);
+                default:
+                    return null;
+            }
+        } catch (IllegalArgumentException e) {
+            // includes NumberFormatException
+            return null;
+        }
+    }
+
+    /**
+     * Encodes a state or command for the remote node. Constants are encoded by their names, which are not copied.
+     *
+     * @param type -- the state or command
+     * @return the value as expected by the REST interface of the remote node
+     */
+    public static String encode(Type type) {
+        if (type instanceof Enum) {
+            return ((Enum<?>) type).name();
+        }
+        return type.toFullString();
+    }
+
+    /**
+     * Returns if a local state already equals the state of the remote item, then decoding the remote state can be
+     * skipped.
+     *
+     * @param state -- state of the local item
+     * @param value -- state of the remote item
+     * @return true if the states are the same
+     */
+    public static boolean matches(@Nullable State state, String value) {
+        if (state == null) {
+            return false;
+        }
+        if (state instanceof Enum) {
+            return ((Enum<?>) state).name().equals(value);
+        }
+        return state.toFullString().equals(value);
+    }
+
+    private static @Nullable State decodeUndefined(String value) {
+        switch (value) {
+            case "NULL":
+                return UnDefType.NULL;
+            case "UNDEF":
+                return UnDefType.UNDEF;
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable State decodeOnOff(String value) {
+        switch (value) {
+            case "ON":
+                return OnOffType.ON;
+            case "OFF":
+                return OnOffType.OFF;
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable State decodeOpenClosed(String value) {
+        switch (value) {
+            case "OPEN":
+                return OpenClosedType.OPEN;
+            case "CLOSED":
+                return OpenClosedType.CLOSED;
+            default:
+                return null;
+        }
+    }
+
+    private static @Nullable State decodeUpDown(String value) {
+        switch (value) {
+            case "UP":
+                return UpDownType.UP;
+            case "DOWN":
+                return UpDownType.DOWN;
+            default:
+                return null;
+        }
+    }
+
+    private static State decodePercent(String value) {
+        switch (value) {
+            case "0":
+                return PercentType.ZERO;
+            case "100":
+                return PercentType.HUNDRED;
+            default:
+                return new PercentType(value);
+        }
+    }
+
+    private static @Nullable State decodePlayer(String value) {
+        switch (value) {
+            case "PLAY":
+                return PlayPauseType.PLAY;
+            case "PAUSE":
+                return PlayPauseType.PAUSE;
+            case "REWIND":
+                return RewindFastforwardType.REWIND;
+            case "FASTFORWARD":
+                return RewindFastforwardType.FASTFORWARD;
+            default:
+                return null;
+        }
+    }
+}
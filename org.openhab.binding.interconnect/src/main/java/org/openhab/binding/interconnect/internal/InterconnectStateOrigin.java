@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link InterconnectStateOrigin} keeps track of the states, which have been sent to the remote node and are not
+ * confirmed yet, to prevent stale remote states from overwriting local changes.
+ *
+ * Every outbound command and every inbound read of remote states gets a sequence number. An inbound state, which
+ * differs from a pending outbound value, is dropped if it has been read before the command has been sent, or if the
+ * remote node had not enough time to process the command yet. A pending value is removed as soon as the remote
+ * node reports it, or after it has expired.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectStateOrigin {
+
+    // time the remote node gets to process a command, before a differing state is accepted
+    private static final long CONFIRMATION_GRACE = TimeUnit.SECONDS.toMillis(3);
+    // time after which a pending value is dropped, even if it has never been confirmed
+    private static final long PENDING_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * A value which has been sent to the remote node.
+     */
+    private static class PendingValue {
+        private final long sequence;
+        private final String value;
+        private final long timestamp;
+
+        PendingValue(long sequence, String value, long timestamp) {
+            this.sequence = sequence;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, PendingValue> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the sequence number for an inbound read. Must be called before the remote states are requested.
+     *
+     * @return sequence number
+     */
+    public long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Records a value, which is about to be sent to the remote node.
+     *
+     * @param item -- local name of the item
+     * @param value -- the value sent
+     * @return sequence number of the command
+     */
+    public long outbound(String item, String value) {
+        long seq = nextSequence();
+        pending.put(item, new PendingValue(seq, value, System.currentTimeMillis()));
+        return seq;
+    }
+
+    /**
+     * Removes the pending value of an outbound command, which could not be sent.
+     *
+     * @param item -- local name of the item
+     * @param sequence -- sequence number of the command
+     */
+    public void outboundFailed(String item, long sequence) {
+        PendingValue pendingValue = pending.get(item);
+        if (pendingValue != null && pendingValue.sequence == sequence) {
+            pending.remove(item, pendingValue);
+        }
+    }
+
+    /**
+     * Checks if the value has already been sent to the remote node and is not confirmed yet.
+     *
+     * @param item -- local name of the item
+     * @param value -- the value to send
+     * @return true if the same value is pending
+     */
+    public boolean isPending(String item, String value) {
+        PendingValue pendingValue = pending.get(item);
+        return pendingValue != null && !isExpired(pendingValue, System.currentTimeMillis())
+                && pendingValue.value.equals(value);
+    }
+
+    /**
+     * Returns the value of the pending command for the item.
+     *
+     * @param item -- local name of the item
+     * @return the pending value or null
+     */
+    public @Nullable String getPendingValue(String item) {
+        PendingValue pendingValue = pending.get(item);
+        return pendingValue == null ? null : pendingValue.value;
+    }
+
+    /**
+     * Checks if an inbound state of the remote node may be applied locally.
+     *
+     * @param item -- local name of the item
+     * @param state -- state reported by the remote node
+     * @param inboundSequence -- sequence number taken before the state has been requested
+     * @return false if the state is older than a pending outbound value and has to be dropped
+     */
+    public boolean acceptInbound(String item, String state, long inboundSequence) {
+        if (pending.isEmpty()) {
+            return true;
+        }
+        PendingValue pendingValue = pending.get(item);
+        if (pendingValue == null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(pendingValue, now)) {
+            pending.remove(item, pendingValue);
+            return true;
+        }
+        if (pendingValue.value.equals(state)) {
+            // the remote node confirmed the value
+            if (inboundSequence > pendingValue.sequence) {
+                pending.remove(item, pendingValue);
+            }
+            return true;
+        }
+        if (inboundSequence < pendingValue.sequence || now - pendingValue.timestamp < CONFIRMATION_GRACE) {
+            // stale state, which has been read before the command or while the remote node is still processing it
+            return false;
+        }
+        // the remote node has rejected or overridden the value
+        pending.remove(item, pendingValue);
+        return true;
+    }
+
+    /**
+     * Removes all pending values.
+     */
+    public void clear() {
+        pending.clear();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    private boolean isExpired(PendingValue pendingValue, long now) {
+        return now - pendingValue.timestamp > PENDING_TIMEOUT;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectSyncCursor} holds the changes of a shard, which have not been handled within the time budget
+ * of a synchronization cycle, together with the remote items they have been found in. The next cycle of the shard
+ * continues with these changes instead of fetching the remote items again.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectSyncCursor {
+
+    private final List<OpenHabInterconnectBindingRemoteItem> remoteItems;
+    private final Set<String> pendingNames;
+    private final long inboundSequence;
+    private final int shardCount;
+    private final long createdAt = System.currentTimeMillis();
+
+    /**
+     * Saves the remaining changes of a cycle.
+     *
+     * @param remoteItems -- the remote items of the shard fetched by the cycle
+     * @param pendingNames -- names of the changed items, which have not been handled
+     * @param inboundSequence -- sequence number taken before the remote items have been requested
+     * @param shardCount -- number of shards the remote items have been assigned to
+     */
+    public InterconnectSyncCursor(List<OpenHabInterconnectBindingRemoteItem> remoteItems, Set<String> pendingNames,
+            long inboundSequence, int shardCount) {
+        this.remoteItems = Collections.unmodifiableList(remoteItems);
+        this.pendingNames = Collections.unmodifiableSet(pendingNames);
+        this.inboundSequence = inboundSequence;
+        this.shardCount = shardCount;
+    }
+
+    public List<OpenHabInterconnectBindingRemoteItem> getRemoteItems() {
+        return remoteItems;
+    }
+
+    public Set<String> getPendingNames() {
+        return pendingNames;
+    }
+
+    public long getInboundSequence() {
+        return inboundSequence;
+    }
+
+    /**
+     * Returns if the saved remote items belong to the current shards. After the number of shards has changed, the
+     * items of a shard differ from the saved ones.
+     *
+     * @param count -- current number of shards
+     * @return true if the cursor has been saved with the same number of shards
+     */
+    public boolean hasShardCount(int count) {
+        return shardCount == count;
+    }
+
+    /**
+     * Returns if the saved remote items are too old to be applied, then the shard has to be fetched again.
+     *
+     * @param maxAge -- maximum age in milliseconds
+     * @return true if the cursor has expired
+     */
+    public boolean isExpired(long maxAge) {
+        return System.currentTimeMillis() - createdAt > maxAge;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link InterconnectTraceBuffer} keeps the latest trace messages of a thing for a limited time, so an operator can
+ * look at the details of the synchronization without turning on the logging of all things.
+ *
+ * Messages are only kept while the trace is active. Callers check {@link #isActive()} before they build a message, so
+ * an inactive trace costs a single volatile read.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectTraceBuffer {
+
+    private final String[] messages;
+    private final long[] timestamps;
+    // number of messages added since the trace has been started
+    private long count;
+    private volatile long activeUntil;
+
+    /**
+     * Creates an inactive trace.
+     *
+     * @param capacity -- number of messages kept, older messages are dropped
+     */
+    public InterconnectTraceBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.messages = new String[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Drops the kept messages and starts the trace.
+     *
+     * @param duration -- time in milliseconds, after which the trace stops by itself
+     */
+    public synchronized void start(long duration) {
+        count = 0;
+        activeUntil = System.currentTimeMillis() + duration;
+    }
+
+    /**
+     * Stops the trace, the kept messages can still be read.
+     */
+    public void stop() {
+        activeUntil = 0;
+    }
+
+    public boolean isActive() {
+        return activeUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * Adds a message, if the trace is active.
+     *
+     * @param message -- the message
+     */
+    public synchronized void add(String message) {
+        long now = System.currentTimeMillis();
+        if (activeUntil <= now) {
+            return;
+        }
+        int i = (int) (count++ % messages.length);
+        messages[i] = message;
+        timestamps[i] = now;
+    }
+
+    /**
+     * Returns the kept messages in the order they have been added.
+     *
+     * @return the messages, each prefixed with its time
+     */
+    public synchronized List<String> getMessages() {
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+        long first = Math.max(0, count - messages.length);
+        List<String> result = new ArrayList<>((int) (count - first));
+        for (long n = first; n < count; n++) {
+            int i = (int) (n % messages.length);
+            result.add(format.format(new Date(timestamps[i])) + " " + messages[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of messages, which have been dropped because the buffer was full.
+     *
+     * @return number of dropped messages
+     */
+    public synchronized long getDroppedCount() {
+        return Math.max(0, count - messages.length);
+    }
+}
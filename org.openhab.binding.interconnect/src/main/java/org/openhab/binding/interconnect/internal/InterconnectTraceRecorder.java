@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectTraceRecorder} writes every request to the remote node and its response to a trace file,
+ * which can be fed back into the binding by the {@link InterconnectTraceReplayer}.
+ *
+ * Every exchange is written as one line
+ * <code>R &lt;epoch ms&gt; &lt;duration &micro;s&gt; &lt;method&gt; &lt;path&gt; &lt;request&gt;
+ * &lt;response&gt;</code>, separated by tabs. Request and response bodies are Base64 encoded (<code>-</code> for
+ * no body), a failed request is stored as <code>!</code> followed by the encoded error message. The start of every
+ * synchronization cycle is marked by a line <code>C &lt;epoch ms&gt;</code>. Files ending with <code>.gz</code> are
+ * compressed.
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectTraceRecorder {
+
+    static final String TYPE_CYCLE = "C";
+    static final String TYPE_REQUEST = "R";
+    static final String ERROR_PREFIX = "!";
+    static final String SEPARATOR = "\t";
+    static final String NULL_VALUE = "-";
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectTraceRecorder.class);
+
+    private final File traceFile;
+    private final Writer writer;
+
+    public InterconnectTraceRecorder(File traceFile) throws IOException {
+        this.traceFile = traceFile;
+        File folder = traceFile.getAbsoluteFile().getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Unable to create folder for trace file " + traceFile.getPath());
+        }
+        OutputStream out = new FileOutputStream(traceFile, false);
+        if (isCompressed(traceFile)) {
+            out = new GZIPOutputStream(out);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Marks the start of a new synchronization cycle.
+     */
+    public synchronized void markCycle() {
+        writeLine(TYPE_CYCLE + SEPARATOR + System.currentTimeMillis());
+    }
+
+    /**
+     * Records a single exchange with the remote node.
+     *
+     * @param method -- http method of the request
+     * @param path -- path and query of the request, without scheme, host and port
+     * @param request -- request body or null
+     * @param response -- response body or null
+     * @param error -- error raised by the request or null
+     * @param startMillis -- time the request has been sent
+     * @param durationNanos -- time until the response has been received
+     */
+    public synchronized void record(String method, String path, @Nullable String request, @Nullable String response,
+            @Nullable IOException error, long startMillis, long durationNanos) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(TYPE_REQUEST).append(SEPARATOR);
+        builder.append(startMillis).append(SEPARATOR);
+        builder.append(durationNanos / 1000).append(SEPARATOR);
+        builder.append(method).append(SEPARATOR);
+        builder.append(path).append(SEPARATOR);
+        builder.append(encode(request)).append(SEPARATOR);
+        if (error != null) {
+            builder.append(ERROR_PREFIX).append(encode(String.valueOf(error.getMessage())));
+        } else {
+            builder.append(encode(response));
+        }
+        writeLine(builder.toString());
+    }
+
+    /**
+     * Flushes and closes the trace file.
+     */
+    public synchronized void close() {
+        try {
+            writer.close();
+            logger.info("Trace file [{}] closed.", traceFile.getPath());
+        } catch (IOException e) {
+            logger.warn("Unable to close trace file [{}]: {}", traceFile.getPath(), e.getMessage());
+        }
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Unable to write to trace file [{}]: {}", traceFile.getPath(), e.getMessage());
+        }
+    }
+
+    static boolean isCompressed(File file) {
+        return file.getName().endsWith(".gz");
+    }
+
+    static String encode(@Nullable String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static @Nullable String decode(String value) {
+        if (NULL_VALUE.equals(value)) {
+            return null;
+        }
+        return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
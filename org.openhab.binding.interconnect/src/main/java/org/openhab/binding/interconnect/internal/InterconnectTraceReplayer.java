@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2014,2018 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.interconnect.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link InterconnectTraceReplayer} loads a trace written by the {@link InterconnectTraceRecorder} and answers
+ * the requests of the binding with the recorded responses, cycle by cycle.
+ *
+ * The replay can run in the original timing (speed 1), accelerated (speed &gt; 1) or as fast as possible (speed 0).
+ *
+ * @author Zim - Initial contribution
+ */
+@NonNullByDefault
+public class InterconnectTraceReplayer {
+
+    private final Logger logger = LoggerFactory.getLogger(InterconnectTraceReplayer.class);
+
+    /**
+     * A single recorded request with its response.
+     */
+    private static class Exchange {
+        private final @Nullable String response;
+        private final @Nullable String error;
+
+        Exchange(@Nullable String response, @Nullable String error) {
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    /**
+     * All exchanges which have been recorded during one synchronization cycle.
+     */
+    private static class Cycle {
+        private final long timestamp;
+        private final Map<String, Deque<Exchange>> exchanges = new HashMap<>();
+
+        Cycle(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final File traceFile;
+    private final List<Cycle> cycles;
+    private volatile @Nullable Cycle currentCycle;
+    private volatile boolean stopped;
+
+    private InterconnectTraceReplayer(File traceFile, List<Cycle> cycles) {
+        this.traceFile = traceFile;
+        this.cycles = cycles;
+        this.currentCycle = cycles.isEmpty() ? null : cycles.get(0);
+    }
+
+    /**
+     * Loads the trace file. Requests recorded before the first cycle mark are added to the first cycle.
+     *
+     * @param traceFile -- trace written by the {@link InterconnectTraceRecorder}
+     * @return the replayer
+     * @throws IOException if the file can not be read or has an invalid format
+     */
+    public static InterconnectTraceReplayer load(File traceFile) throws IOException {
+        List<Cycle> cycles = new ArrayList<>();
+        InputStream in = new FileInputStream(traceFile);
+        if (InterconnectTraceRecorder.isCompressed(traceFile)) {
+            in = new GZIPInputStream(in);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Cycle cycle = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                ++lineNumber;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(InterconnectTraceRecorder.SEPARATOR, -1);
+                try {
+                    if (InterconnectTraceRecorder.TYPE_CYCLE.equals(fields[0])) {
+                        long timestamp = Long.parseLong(fields[1]);
+                        if (cycle != null && cycles.isEmpty()) {
+                            // requests recorded before the first cycle mark belong to the first cycle
+                            cycles.add(cycle);
+                        } else {
+                            cycle = new Cycle(timestamp);
+                            cycles.add(cycle);
+                        }
+                    } else if (InterconnectTraceRecorder.TYPE_REQUEST.equals(fields[0]) && fields.length == 7) {
+                        if (cycle == null) {
+                            cycle = new Cycle(Long.parseLong(fields[1]));
+                        }
+                        String response = fields[6];
+                        Exchange exchange;
+                        if (response.startsWith(InterconnectTraceRecorder.ERROR_PREFIX)) {
+                            exchange = new Exchange(null, InterconnectTraceRecorder.decode(
+                                    response.substring(InterconnectTraceRecorder.ERROR_PREFIX.length())));
+                        } else {
+                            exchange = new Exchange(InterconnectTraceRecorder.decode(response), null);
+                        }
+                        cycle.exchanges.computeIfAbsent(key(fields[3], fields[4]), k -> new ArrayDeque<>())
+                                .add(exchange);
+                    } else {
+                        throw new IOException("Invalid trace line " + lineNumber + " in " + traceFile.getPath());
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Invalid trace line " + lineNumber + " in " + traceFile.getPath(), e);
+                }
+            }
+            if (cycle != null && cycles.isEmpty()) {
+                cycles.add(cycle);
+            }
+        }
+        return new InterconnectTraceReplayer(traceFile, cycles);
+    }
+
+    /**
+     * Returns the recorded response for the request in the current cycle.
+     *
+     * @param method -- http method of the request
+     * @param path -- path and query of the request
+     * @return the recorded response
+     * @throws IOException if the request failed while recording or was not recorded in the current cycle
+     */
+    public String answer(String method, String path) throws IOException {
+        Cycle cycle = this.currentCycle;
+        Deque<Exchange> exchanges = cycle == null ? null : cycle.exchanges.get(key(method, path));
+        Exchange exchange = exchanges == null ? null : exchanges.poll();
+        if (exchange == null) {
+            throw new IOException("No recorded response for " + method + " " + path + " in trace.");
+        }
+        if (exchange.error != null) {
+            throw new IOException(exchange.error);
+        }
+        String response = exchange.response;
+        if (response == null) {
+            throw new IOException("Empty recorded response for " + method + " " + path + " in trace.");
+        }
+        return response;
+    }
+
+    /**
+     * Replays all recorded cycles by calling the synchronization for every cycle.
+     *
+     * @param synchronization -- the synchronization of the handler
+     * @param speed -- 1 for the original timing, greater 1 for an accelerated replay, 0 for no delay at all
+     */
+    public void replay(Runnable synchronization, double speed) {
+        logger.info("Replaying {} cycles from trace [{}] with speed {}.", cycles.size(), traceFile.getPath(), speed);
+        long totalNanos = 0;
+        long maxNanos = 0;
+        int replayed = 0;
+        Cycle previous = null;
+        for (Cycle cycle : cycles) {
+            if (stopped || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (previous != null && speed > 0) {
+                long delay = (long) ((cycle.timestamp - previous.timestamp) / speed);
+                if (delay > 0) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            currentCycle = cycle;
+            long start = System.nanoTime();
+            synchronization.run();
+            long duration = System.nanoTime() - start;
+            totalNanos += duration;
+            maxNanos = Math.max(maxNanos, duration);
+            ++replayed;
+            previous = cycle;
+        }
+        currentCycle = null;
+        logger.info("Replay of trace [{}] finished: {} cycles, total {} ms, average {} ms, maximum {} ms.",
+                traceFile.getPath(), replayed, TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                replayed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos / replayed),
+                TimeUnit.NANOSECONDS.toMillis(maxNanos));
+    }
+
+    /**
+     * Stops a running replay after the current cycle.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private static String key(String method, String path) {
+        return method + " " + path;
+    }
+}
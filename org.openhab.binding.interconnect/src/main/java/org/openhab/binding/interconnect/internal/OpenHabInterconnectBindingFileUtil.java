@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 public class OpenHabInterconnectBindingFileUtil {
@@ -21,10 +23,13 @@ public class OpenHabInterconnectBindingFileUtil {
     public static int deleteItemsFromFile(List<String> itemNames, File file) throws IOException {
         List<String> lines = Files.readAllLines(Paths.get(file.getPath()), Charset.forName("UTF-8"));
         int linesDeleted = 0;
-        for (int i = 0; i < lines.size(); i++) {
+        Iterator<String> it = lines.iterator();
+        while (it.hasNext()) {
+            String line = it.next();
             for (String name : itemNames) {
-                if (containsItemName(lines.get(i), name)) {
-                    lines.remove(i);
+                if (containsItemName(line, name)) {
+                    // all definitions of the item are deleted, consecutive lines included
+                    it.remove();
                     ++linesDeleted;
                     break;
                 }
@@ -34,6 +39,25 @@ public class OpenHabInterconnectBindingFileUtil {
         return linesDeleted;
     }
 
+    /**
+     * Checks if the file has exactly the given content.
+     *
+     * @param file -- the file to check
+     * @param content -- the expected content
+     * @return true if the file exists and has the content
+     * @throws IOException
+     */
+    public static boolean hasContent(File file, String content) throws IOException {
+        if (!file.exists()) {
+            return false;
+        }
+        byte[] expected = content.getBytes(Charset.forName("UTF-8"));
+        if (file.length() != expected.length) {
+            return false;
+        }
+        return Arrays.equals(Files.readAllBytes(Paths.get(file.getPath())), expected);
+    }
+
     /**
      * Checks if the itemMetaData String contains the itemName for the "item=" property.
      *
@@ -28,6 +28,21 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
     @Nullable
     private List<String> remoteGroupNames;
 
+    // sequence number of the read, which delivered the state of this item (not part of the json data)
+    private transient long version;
+
+    // shard which synchronizes this item (not part of the json data)
+    private transient int shard;
+
+    // page of the generated sitemap, which shows this item (not part of the json data)
+    private transient String page = "";
+
+    // node the item originates from and number of nodes it has been relayed by, null/0 outside of the relay mode
+    // (not part of the json data)
+    @Nullable
+    private transient String origin;
+    private transient int hops;
+
     public List<String> getRemoteGroupNames() {
         return remoteGroupNames;
     }
@@ -36,6 +51,49 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
         this.remoteGroupNames = remoteGroupNames;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public String getPage() {
+        return page;
+    }
+
+    public void setPage(String page) {
+        this.page = page;
+    }
+
+    public @Nullable String getOrigin() {
+        return origin;
+    }
+
+    public int getHops() {
+        return hops;
+    }
+
+    /**
+     * Marks this item as relayed.
+     *
+     * @param origin -- name of the node, which the item originates from
+     * @param hops -- number of nodes, which have relayed the item including this one
+     */
+    public void setRelay(@Nullable String origin, int hops) {
+        this.origin = origin;
+        this.hops = hops;
+    }
+
     public String getRemoteName() {
         return remoteName;
     }
@@ -72,6 +130,17 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
         return type;
     }
 
+    /**
+     * Returns the id of the channel of the item. Dimensioned items like Number:Temperature use the channel of their
+     * base type.
+     *
+     * @return the channel id, e.g. Number
+     */
+    public String getChannelId() {
+        int dimension = type.indexOf(':');
+        return dimension < 0 ? type : type.substring(0, dimension);
+    }
+
     public void setType(String type) {
         this.type = type;
     }
@@ -105,6 +174,31 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
         this.tags = tags;
     }
 
+    /**
+     * Returns a copy of this item with another state. Used to replace items, which are part of a published snapshot.
+     *
+     * @param newState -- state of the copy
+     * @return the copy
+     */
+    public OpenHabInterconnectBindingRemoteItem withState(String newState) {
+        OpenHabInterconnectBindingRemoteItem item = new OpenHabInterconnectBindingRemoteItem();
+        item.link = link;
+        item.state = newState;
+        item.type = type;
+        item.name = name;
+        item.label = label;
+        item.tags = tags;
+        item.groupNames = groupNames;
+        item.remoteName = remoteName;
+        item.remoteGroupNames = remoteGroupNames;
+        item.version = version;
+        item.shard = shard;
+        item.page = page;
+        item.origin = origin;
+        item.hops = hops;
+        return item;
+    }
+
     /**
      * Returns the data of this item as openhab2 conform item string, which can be written to a *.items file for
      * example.
@@ -134,13 +228,24 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
             builder.append(")");
             builder.append(InterconnectBindingConstants.SPACE);
         }
+        if (origin != null) {
+            // relay tags, read by the next node of the chain
+            builder.append("[\"");
+            builder.append(InterconnectBindingConstants.RELAY_TAG_ORIGIN);
+            builder.append(origin);
+            builder.append("\", \"");
+            builder.append(InterconnectBindingConstants.RELAY_TAG_HOPS);
+            builder.append(hops);
+            builder.append("\"]");
+            builder.append(InterconnectBindingConstants.SPACE);
+        }
 
         if (!InterconnectBindingConstants.CHANNEL_GROUP.equals(getType())) {
             builder.append("{ channel = \"");
             builder.append(thingID);
             builder.append(":");
-            builder.append(getType());
-            builder.append(" \"}");
+            builder.append(getChannelId());
+            builder.append("\" }");
         }
         builder.append(System.lineSeparator());
         return builder.toString();
@@ -183,7 +288,7 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
 
     /**
      * Checks the item configuration is the same as the other object o.
-     * This method will compare the type, label and group names.
+     * This method will compare the type, label, group names and relay tags.
      *
      * @param object to compare the configuration with
      * @return true if configuration is equal otherwise false
@@ -198,7 +303,7 @@ public class OpenHabInterconnectBindingRemoteItem implements Comparable<OpenHabI
                     || ((getLabel() != null && item.getLabel() != null)
                             && (getLabel().contentEquals(item.getLabel()))))) {
                 if (getGroupNames().equals(item.getGroupNames())) {
-                    return true;
+                    return hops == item.hops && (origin == null ? item.origin == null : origin.equals(item.origin));
                 }
             }
         }